@@ -0,0 +1,98 @@
+package net.jackclarke95.autoreplanter.gametest;
+
+import java.util.List;
+
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.jackclarke95.autoreplanter.AutoReplanter;
+import net.jackclarke95.autoreplanter.AutoReplanterConfig;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.CropBlock;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+
+/**
+ * Checks which blocks automatic harvesting picks up.
+ * <p>
+ * A mature crop and a placed block matched by a custom replacement rule
+ * without an {@code age} requirement are put side by side in a ticking chunk.
+ * The crop must be harvested and replanted, while the decorative block, which
+ * the rule cannot tell is ripe, must be left alone.
+ * </p>
+ */
+public class AutoHarvestGameTest implements FabricGameTest {
+
+	private static final BlockPos CROP = new BlockPos(0, 2, 0);
+	private static final BlockPos DECORATION = new BlockPos(2, 2, 0);
+
+	@GameTest(templateName = EMPTY_STRUCTURE, batchId = "autoreplanter_auto_harvest", tickLimit = 200)
+	public void autoHarvestLeavesDecorativeTargets(TestContext context) {
+		ServerWorld world = context.getWorld();
+		BlockPos absoluteCrop = context.getAbsolutePos(CROP);
+		int chunkX = ChunkSectionPos.getSectionCoord(absoluteCrop.getX());
+		int chunkZ = ChunkSectionPos.getSectionCoord(absoluteCrop.getZ());
+		AutoReplanter mod = MassHarvestGameTest.findMod();
+		AutoReplanterConfig originalConfig = mod.getConfig();
+		CropBlock wheat = (CropBlock) Blocks.WHEAT;
+
+		mod.applyConfig(createTestConfig());
+
+		// Auto-harvest only visits chunks that tick, which needs a nearby player or a forced chunk
+		world.setChunkForced(chunkX, chunkZ, true);
+
+		context.setBlockState(CROP.down(), Blocks.FARMLAND);
+		context.setBlockState(CROP, wheat.withAge(wheat.getMaxAge()));
+		context.setBlockState(DECORATION, Blocks.PUMPKIN);
+
+		context.runAtEveryTick(() -> {
+			BlockState crop = world.getBlockState(absoluteCrop);
+
+			if (crop != wheat.withAge(0)) {
+				return;
+			}
+
+			try {
+				BlockState decoration = world.getBlockState(context.getAbsolutePos(DECORATION));
+
+				context.assertTrue(decoration.isOf(Blocks.PUMPKIN),
+						"Expected the decorative pumpkin to be left alone, but found " + decoration);
+			} finally {
+				for (ItemEntity entity : world.getEntitiesByType(EntityType.ITEM,
+						new Box(absoluteCrop).expand(4), candidate -> true)) {
+					entity.discard();
+				}
+
+				for (BlockPos pos : List.of(CROP, CROP.down(), DECORATION)) {
+					context.setBlockState(pos, Blocks.AIR.getDefaultState());
+				}
+
+				world.setChunkForced(chunkX, chunkZ, false);
+				mod.applyConfig(originalConfig);
+			}
+
+			context.complete();
+		});
+	}
+
+	/**
+	 * Creates the configuration used by the test: auto-harvest on every tick,
+	 * and a custom rule that matches placed pumpkins.
+	 */
+	private static AutoReplanterConfig createTestConfig() {
+		AutoReplanterConfig config = new AutoReplanterConfig();
+
+		config.requireTool = false;
+		config.enableAutoHarvest = true;
+		config.autoHarvestIntervalTicks = 1;
+		config.customBlockReplacements = List.of(new AutoReplanterConfig.CustomBlockReplacement("minecraft:pumpkin",
+				"minecraft:pumpkin_stem", false));
+
+		return config;
+	}
+}
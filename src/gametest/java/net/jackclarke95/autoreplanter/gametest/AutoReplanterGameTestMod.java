@@ -0,0 +1,91 @@
+package net.jackclarke95.autoreplanter.gametest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.CropBlock;
+import net.minecraft.item.BlockItem;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+
+/**
+ * Registers the content used by the Auto Replanter GameTests.
+ */
+public class AutoReplanterGameTestMod implements ModInitializer {
+
+	public static final String MOD_ID = "auto-replanter-gametest";
+
+	/** A modded crop, to check that {@link CropBlock} subclasses are replanted. */
+	public static final Block TEST_CROP = new TestCropBlock(AbstractBlock.Settings.copy(Blocks.WHEAT));
+
+	/** When the current server tick started, from {@link System#nanoTime()}. */
+	private static long tickStartNanos;
+
+	/** How long the last complete server tick took, in nanoseconds. */
+	private static long lastTickNanos;
+
+	/** Tasks run at the start of each tick of a world, until they return {@code true}. */
+	private static final Map<RegistryKey<World>, BooleanSupplier> WORLD_TICK_TASKS = new ConcurrentHashMap<>();
+
+	@Override
+	public void onInitialize() {
+		Identifier id = Identifier.of(MOD_ID, "test_crop");
+
+		Registry.register(Registries.BLOCK, id, TEST_CROP);
+		Registry.register(Registries.ITEM, id, new BlockItem(TEST_CROP, new Item.Settings()));
+
+		ServerTickEvents.START_SERVER_TICK.register(server -> tickStartNanos = System.nanoTime());
+		ServerTickEvents.END_SERVER_TICK.register(server -> lastTickNanos = System.nanoTime() - tickStartNanos);
+		ServerTickEvents.START_WORLD_TICK.register(world -> {
+			BooleanSupplier task = WORLD_TICK_TASKS.get(world.getRegistryKey());
+
+			if (task != null && task.getAsBoolean()) {
+				WORLD_TICK_TASKS.remove(world.getRegistryKey(), task);
+			}
+		});
+	}
+
+	/**
+	 * Runs a task at the start of every tick of a world, on the thread ticking
+	 * that world, until it returns {@code true}. Only one task can run in a world
+	 * at a time.
+	 *
+	 * @param world The world to run the task in.
+	 * @param task  The task, returning {@code true} once it has finished.
+	 */
+	public static void runEachWorldTick(ServerWorld world, BooleanSupplier task) {
+		if (WORLD_TICK_TASKS.putIfAbsent(world.getRegistryKey(), task) != null) {
+			throw new IllegalStateException("A task is already running in " + world.getRegistryKey().getValue());
+		}
+	}
+
+	/**
+	 * Gets how long the last complete server tick took, including every world
+	 * and the GameTests. Only called from the server thread.
+	 *
+	 * @return The duration of the previous tick, in nanoseconds.
+	 */
+	public static long getLastTickNanos() {
+		return lastTickNanos;
+	}
+
+	/**
+	 * A crop block subclass, standing in for crops added by other mods.
+	 */
+	public static class TestCropBlock extends CropBlock {
+		public TestCropBlock(AbstractBlock.Settings settings) {
+			super(settings);
+		}
+	}
+}
@@ -0,0 +1,336 @@
+package net.jackclarke95.autoreplanter.gametest;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mojang.authlib.GameProfile;
+
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.entrypoint.EntrypointContainer;
+import net.jackclarke95.autoreplanter.AutoReplanter;
+import net.jackclarke95.autoreplanter.AutoReplanterConfig;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.CropBlock;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+
+/**
+ * Headless load tests that harvest large synthetic farms through the real
+ * {@code PlayerBlockBreakEvents} path using fake players.
+ * <p>
+ * Each test plants a square farm (256x256 by default, configurable with
+ * {@code -Dautoreplanter.gametest.farmSize}) and has several fake players break
+ * every block over a number of ticks, twice: first with auto-replanting
+ * disabled, as a vanilla control, then with it enabled. The world's loot random
+ * sequences are reset before each run, so both roll exactly the same loot, and
+ * the test checks that every block was replanted and that the drops differ
+ * from the control by exactly one seed per block.
+ * </p>
+ * <p>
+ * The server tick time (MSPT) of both runs, the item entities spawned and the
+ * bytes allocated by the harvests are logged as a reproducible performance
+ * baseline.
+ * </p>
+ */
+public class MassHarvestGameTest implements FabricGameTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AutoReplanterGameTestMod.MOD_ID);
+
+	private static final int FARM_SIZE = Integer.getInteger("autoreplanter.gametest.farmSize", 256);
+	private static final int PLAYERS = 8;
+	private static final int BREAKS_PER_PLAYER_PER_TICK = 512;
+
+	/**
+	 * Immature vanilla crops, modded crops and custom replacement targets each
+	 * drop exactly one of their replant item, so nothing should be left over.
+	 */
+	@GameTest(templateName = EMPTY_STRUCTURE, batchId = "autoreplanter_immature", tickLimit = 2400)
+	public void harvestImmatureMixedFarm(TestContext context) {
+		Block[] crops = { Blocks.WHEAT, Blocks.CARROTS, Blocks.POTATOES, Blocks.BEETROOTS,
+				AutoReplanterGameTestMod.TEST_CROP };
+
+		runMassHarvest(context, "immature mixed farm", (x, z, random) -> {
+			int kind = Math.floorMod(x + z, crops.length + 1);
+
+			// Every sixth block is a custom replacement target instead of a crop
+			if (kind == crops.length) {
+				return Blocks.PUMPKIN.getDefaultState();
+			}
+
+			CropBlock crop = (CropBlock) crops[kind];
+
+			return crop.withAge(random.nextInt(crop.getMaxAge()));
+		}, (cropCount, drops, vanillaDrops) -> {
+			int total = drops.values().stream().mapToInt(Integer::intValue).sum();
+
+			context.assertTrue(total == 0, "Expected no drops from immature crops, but found " + drops);
+		});
+	}
+
+	/**
+	 * Mature wheat drops one wheat and a random number of seeds. With the same
+	 * loot rolls as the vanilla control, exactly one seed per crop should be
+	 * consumed by the replant, and the wheat should be untouched.
+	 */
+	@GameTest(templateName = EMPTY_STRUCTURE, batchId = "autoreplanter_mature", tickLimit = 2400)
+	public void harvestMatureWheatFarm(TestContext context) {
+		CropBlock wheat = (CropBlock) Blocks.WHEAT;
+
+		runMassHarvest(context, "mature wheat farm", (x, z, random) -> wheat.withAge(wheat.getMaxAge()),
+				(cropCount, drops, vanillaDrops) -> {
+					int wheatCount = drops.getOrDefault(Items.WHEAT, 0);
+					int seedCount = drops.getOrDefault(Items.WHEAT_SEEDS, 0);
+					int expectedSeeds = vanillaDrops.getOrDefault(Items.WHEAT_SEEDS, 0) - cropCount;
+
+					context.assertTrue(wheatCount == cropCount,
+							"Expected " + cropCount + " wheat, but found " + wheatCount);
+					context.assertTrue(seedCount == expectedSeeds, "Expected " + expectedSeeds
+							+ " seeds, one per crop fewer than vanilla, but found " + seedCount);
+				});
+	}
+
+	/**
+	 * Plants a farm and harvests it with fake players over several ticks, first
+	 * without and then with auto-replanting, then verifies the replanted blocks
+	 * and drops and logs the measurements.
+	 */
+	private static void runMassHarvest(TestContext context, String name, FarmLayout layout, DropCheck dropCheck) {
+		ServerWorld world = context.getWorld();
+		BlockPos origin = context.getAbsolutePos(new BlockPos(0, 1, 0));
+		int cropCount = FARM_SIZE * FARM_SIZE;
+		AutoReplanter mod = findMod();
+		AutoReplanterConfig originalConfig = mod.getConfig();
+		AutoReplanterConfig vanillaConfig = createTestConfig();
+
+		vanillaConfig.enableAutoReplanting = false;
+		mod.applyConfig(vanillaConfig);
+
+		BlockState[] planted = new BlockState[cropCount];
+		Random random = new Random(cropCount);
+
+		for (int i = 0; i < cropCount; i++) {
+			planted[i] = layout.plant(i % FARM_SIZE, i / FARM_SIZE, random);
+		}
+
+		plantFarm(world, origin, planted);
+		resetLootSequences(world);
+
+		List<FakePlayer> players = new ArrayList<>();
+
+		for (int i = 0; i < PLAYERS; i++) {
+			players.add(FakePlayer.get(world, new GameProfile(UUID.randomUUID(), "Harvester" + i)));
+		}
+
+		HarvestRun vanilla = new HarvestRun();
+		HarvestRun run = new HarvestRun();
+
+		context.runAtEveryTick(() -> {
+			HarvestRun current = vanilla.finished ? run : vanilla;
+
+			if (current.finished) {
+				return;
+			}
+
+			// The previous tick broke blocks of this run, unless it has only just started
+			if (current.next > 0) {
+				current.recordTickTime(AutoReplanterGameTestMod.getLastTickNanos());
+			}
+
+			if (current.next < cropCount) {
+				long startBytes = getAllocatedBytes();
+
+				for (FakePlayer player : players) {
+					for (int i = 0; i < BREAKS_PER_PLAYER_PER_TICK && current.next < cropCount; i++) {
+						player.interactionManager.tryBreakBlock(getFarmPos(origin, current.next++));
+					}
+				}
+
+				current.allocatedBytes += getAllocatedBytes() - startBytes;
+
+				return;
+			}
+
+			current.finished = true;
+
+			try {
+				if (current == vanilla) {
+					vanilla.drops = collectDrops(world, origin, vanilla);
+
+					// Harvest the same farm again with auto-replanting, rolling the same loot
+					plantFarm(world, origin, planted);
+					resetLootSequences(world);
+					mod.applyConfig(createTestConfig());
+
+					return;
+				}
+
+				for (int i = 0; i < cropCount; i++) {
+					BlockState expected = getReplantState(planted[i]);
+					BlockState actual = world.getBlockState(getFarmPos(origin, i));
+
+					context.assertTrue(actual == expected, "Expected " + expected + " at " + getFarmPos(origin, i)
+							+ " but found " + actual);
+				}
+
+				dropCheck.check(cropCount, collectDrops(world, origin, run), vanilla.drops);
+				LOGGER.info("[{}] {} blocks, {} players, {} ticks: avg {} mspt, max {} mspt (vanilla avg {} mspt, "
+						+ "max {} mspt), {} item entities (vanilla {}), {} bytes allocated ({} bytes/block)", name,
+						cropCount, PLAYERS, run.ticks, formatMillis(run.totalTickNanos / run.ticks),
+						formatMillis(run.maxTickNanos), formatMillis(vanilla.totalTickNanos / vanilla.ticks),
+						formatMillis(vanilla.maxTickNanos), run.itemEntities, vanilla.itemEntities,
+						run.allocatedBytes, run.allocatedBytes / cropCount);
+			} catch (RuntimeException e) {
+				clearFarm(world, origin, cropCount);
+				mod.applyConfig(originalConfig);
+
+				throw e;
+			}
+
+			clearFarm(world, origin, cropCount);
+			mod.applyConfig(originalConfig);
+			context.complete();
+		});
+	}
+
+	/**
+	 * Counts the dropped items around the farm by item, then removes the item
+	 * entities.
+	 */
+	private static Map<Item, Integer> collectDrops(ServerWorld world, BlockPos origin, HarvestRun run) {
+		Box area = new Box(origin.getX() - 2, origin.getY() - 2, origin.getZ() - 2, origin.getX() + FARM_SIZE + 2,
+				origin.getY() + 4, origin.getZ() + FARM_SIZE + 2);
+		Map<Item, Integer> drops = new HashMap<>();
+
+		for (ItemEntity entity : world.getEntitiesByType(EntityType.ITEM, area, candidate -> true)) {
+			drops.merge(entity.getStack().getItem(), entity.getStack().getCount(), Integer::sum);
+			run.itemEntities++;
+			entity.discard();
+		}
+
+		return drops;
+	}
+
+	private static void plantFarm(ServerWorld world, BlockPos origin, BlockState[] planted) {
+		for (int i = 0; i < planted.length; i++) {
+			BlockPos pos = getFarmPos(origin, i);
+
+			world.setBlockState(pos.down(), Blocks.FARMLAND.getDefaultState(), Block.NOTIFY_LISTENERS);
+			world.setBlockState(pos, planted[i], Block.NOTIFY_LISTENERS);
+		}
+	}
+
+	private static void clearFarm(ServerWorld world, BlockPos origin, int cropCount) {
+		for (int i = 0; i < cropCount; i++) {
+			BlockPos pos = getFarmPos(origin, i);
+
+			world.setBlockState(pos, Blocks.AIR.getDefaultState(), Block.NOTIFY_LISTENERS);
+			world.setBlockState(pos.down(), Blocks.AIR.getDefaultState(), Block.NOTIFY_LISTENERS);
+		}
+	}
+
+	/**
+	 * Resets the world's random sequences, which block loot tables roll with, so
+	 * harvesting the same blocks in the same order rolls the same loot.
+	 */
+	private static void resetLootSequences(ServerWorld world) {
+		MinecraftServer server = world.getServer();
+
+		server.getCommandManager().executeWithPrefix(server.getCommandSource().withWorld(world).withSilent(),
+				"random reset *");
+	}
+
+	private static String formatMillis(long nanos) {
+		return String.format("%.3f", nanos / 1_000_000.0);
+	}
+
+	private static BlockState getReplantState(BlockState planted) {
+		return planted.getBlock() instanceof CropBlock crop ? crop.withAge(0) : planted.getBlock().getDefaultState();
+	}
+
+	private static BlockPos getFarmPos(BlockPos origin, int index) {
+		return origin.add(index % FARM_SIZE, 1, index / FARM_SIZE);
+	}
+
+	/**
+	 * Creates the configuration used by the tests: no tool requirement, and
+	 * pumpkins replanted as a custom block replacement.
+	 */
+	private static AutoReplanterConfig createTestConfig() {
+		AutoReplanterConfig config = new AutoReplanterConfig();
+
+		config.requireTool = false;
+		config.customBlockReplacements = List.of(
+				new AutoReplanterConfig.CustomBlockReplacement("minecraft:pumpkin", "minecraft:pumpkin", false));
+
+		return config;
+	}
+
+	static AutoReplanter findMod() {
+		return FabricLoader.getInstance().getEntrypointContainers("main", ModInitializer.class).stream()
+				.map(EntrypointContainer::getEntrypoint)
+				.filter(AutoReplanter.class::isInstance)
+				.map(AutoReplanter.class::cast)
+				.findFirst()
+				.orElseThrow(() -> new IllegalStateException("Auto Replanter is not loaded"));
+	}
+
+	private static long getAllocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getCurrentThreadAllocatedBytes();
+	}
+
+	/** Chooses the block state planted at each farm position. */
+	@FunctionalInterface
+	private interface FarmLayout {
+		BlockState plant(int x, int z, Random random);
+	}
+
+	/**
+	 * Verifies the drops collected after the farm has been harvested, against
+	 * those of the vanilla control run.
+	 */
+	@FunctionalInterface
+	private interface DropCheck {
+		void check(int cropCount, Map<Item, Integer> drops, Map<Item, Integer> vanillaDrops);
+	}
+
+	/** Progress and measurements of one harvest run. */
+	private static final class HarvestRun {
+		int next;
+		int ticks;
+		long totalTickNanos;
+		long maxTickNanos;
+		long allocatedBytes;
+		int itemEntities;
+		Map<Item, Integer> drops;
+		boolean finished;
+
+		/** Records the duration of a whole server tick in which blocks were broken. */
+		void recordTickTime(long nanos) {
+			ticks++;
+			totalTickNanos += nanos;
+			maxTickNanos = Math.max(maxTickNanos, nanos);
+		}
+	}
+}
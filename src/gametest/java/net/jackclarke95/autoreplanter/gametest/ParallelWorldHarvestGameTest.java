@@ -0,0 +1,281 @@
+package net.jackclarke95.autoreplanter.gametest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.mojang.authlib.GameProfile;
+
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.jackclarke95.autoreplanter.AutoReplanter;
+import net.jackclarke95.autoreplanter.AutoReplanterConfig;
+import net.jackclarke95.autoreplanter.ReplantDropCache;
+import net.jackclarke95.autoreplanter.ReplantMetrics;
+import net.minecraft.block.Block;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.CropBlock;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.item.Items;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+
+/**
+ * Stress test for servers that tick dimensions on separate threads.
+ * <p>
+ * A farm of mature wheat is planted in the Overworld, the Nether and the End,
+ * and each farm is harvested by its own fake players, a row per tick, through
+ * the real {@code PlayerBlockBreakEvents} path. Each world's harvest is driven
+ * from that world's own tick, so on a server that ticks dimensions in parallel
+ * the three harvests run on separate threads at the same time, and on one that
+ * does not they interleave tick by tick. Drops are consolidated per tick, so
+ * every world's drop pools are in use at once.
+ * </p>
+ * <p>
+ * Any mutable state shared between the worlds would show up as a
+ * {@link java.util.ConcurrentModificationException} in a world tick, drops
+ * spawned in the wrong world, or lost updates to the statistics and drop cache
+ * counters, so the test checks that every block was replanted, that each world
+ * got exactly its own wheat, and that no counter update was lost.
+ * </p>
+ */
+public class ParallelWorldHarvestGameTest implements FabricGameTest {
+
+	private static final int FARM_SIZE = Integer.getInteger("autoreplanter.gametest.parallelFarmSize", 64);
+	private static final int PLAYERS_PER_WORLD = 2;
+
+	@GameTest(templateName = EMPTY_STRUCTURE, batchId = "autoreplanter_parallel", tickLimit = 400)
+	public void harvestWorldsConcurrently(TestContext context) {
+		MinecraftServer server = context.getWorld().getServer();
+		BlockPos testOrigin = context.getAbsolutePos(new BlockPos(0, 1, 0));
+		List<Farm> farms = new ArrayList<>();
+
+		for (ServerWorld world : List.of(context.getWorld(), server.getWorld(World.NETHER),
+				server.getWorld(World.END))) {
+			int y = MathHelper.clamp(testOrigin.getY(), world.getBottomY() + 1, world.getTopY() - 4);
+
+			farms.add(new Farm(world, new BlockPos(testOrigin.getX(), y, testOrigin.getZ())));
+		}
+
+		AutoReplanter mod = MassHarvestGameTest.findMod();
+		AutoReplanterConfig originalConfig = mod.getConfig();
+		ReplantDropCache dropCache = mod.getDropCache();
+		long cacheLookupsBefore = dropCache.getHits() + dropCache.getMisses();
+
+		mod.applyConfig(createTestConfig());
+
+		for (Farm farm : farms) {
+			farm.plant();
+			farm.acceptedBefore = getAccepted(mod, farm.world);
+		}
+
+		for (Farm farm : farms) {
+			AutoReplanterGameTestMod.runEachWorldTick(farm.world, farm::harvestRow);
+		}
+
+		context.runAtEveryTick(new Runnable() {
+			private boolean checked;
+
+			@Override
+			public void run() {
+				if (checked || !farms.stream().allMatch(farm -> farm.finished)) {
+					return;
+				}
+
+				checked = true;
+
+				try {
+					for (Farm farm : farms) {
+						context.assertTrue(farm.failure == null,
+								"Harvesting " + farm.getName() + " failed: " + farm.failure);
+						farm.checkReplanted(context);
+						context.assertTrue(getAccepted(mod, farm.world) - farm.acceptedBefore == farm.cropCount(),
+								"Lost harvest statistics updates in " + farm.getName());
+					}
+
+					long cacheLookups = dropCache.getHits() + dropCache.getMisses() - cacheLookupsBefore;
+					long harvested = (long) farms.size() * FARM_SIZE * FARM_SIZE;
+
+					context.assertTrue(cacheLookups == harvested,
+							"Expected " + harvested + " drop cache lookups, but counted " + cacheLookups);
+				} catch (RuntimeException e) {
+					farms.forEach(Farm::clear);
+					mod.applyConfig(originalConfig);
+
+					throw e;
+				}
+
+				// Per-tick drop pools are spawned at the end of each world's tick
+				context.waitAndRun(2, () -> {
+					try {
+						for (Farm farm : farms) {
+							int wheat = farm.collectWheat();
+
+							context.assertTrue(wheat == farm.cropCount(), "Expected " + farm.cropCount()
+									+ " wheat in " + farm.getName() + ", but found " + wheat);
+						}
+					} finally {
+						farms.forEach(Farm::clear);
+						mod.applyConfig(originalConfig);
+					}
+
+					context.complete();
+				});
+			}
+		});
+	}
+
+	private static long getAccepted(AutoReplanter mod, ServerWorld world) {
+		ReplantMetrics metrics = mod.getStats().getWorlds().get(world.getRegistryKey());
+
+		return metrics != null ? metrics.get(ReplantMetrics.Counter.EVENTS_ACCEPTED) : 0;
+	}
+
+	/**
+	 * Creates the configuration used by the test: no tool requirement, drops
+	 * consolidated per tick and cached drops.
+	 */
+	private static AutoReplanterConfig createTestConfig() {
+		AutoReplanterConfig config = new AutoReplanterConfig();
+
+		config.requireTool = false;
+		config.consolidateDrops = true;
+		config.consolidateDropsPerTick = true;
+		config.cacheDeterministicDrops = true;
+
+		return config;
+	}
+
+	/** A farm of mature wheat in one world, and the players harvesting it. */
+	private static final class Farm {
+		final ServerWorld world;
+		final BlockPos origin;
+		final List<FakePlayer> players = new ArrayList<>();
+		long acceptedBefore;
+
+		/** The next crop to break. Only used from the world's tick. */
+		int next;
+
+		/** Set from the world's tick once every crop was broken or harvesting failed. */
+		volatile boolean finished;
+
+		/** Why harvesting failed, if it did. */
+		volatile RuntimeException failure;
+
+		Farm(ServerWorld world, BlockPos origin) {
+			this.world = world;
+			this.origin = origin;
+
+			for (int i = 0; i < PLAYERS_PER_WORLD; i++) {
+				players.add(FakePlayer.get(world, new GameProfile(UUID.randomUUID(), "ParallelHarvester" + i)));
+			}
+		}
+
+		String getName() {
+			return world.getRegistryKey().getValue().toString();
+		}
+
+		int cropCount() {
+			return FARM_SIZE * FARM_SIZE;
+		}
+
+		/** Plants the farm on the server thread, keeping its chunks loaded. */
+		void plant() {
+			setChunksForced(true);
+
+			CropBlock wheat = (CropBlock) Blocks.WHEAT;
+
+			for (int i = 0; i < cropCount(); i++) {
+				BlockPos pos = getPos(i);
+
+				world.setBlockState(pos.down(), Blocks.FARMLAND.getDefaultState(), Block.NOTIFY_LISTENERS);
+				world.setBlockState(pos, wheat.withAge(wheat.getMaxAge()), Block.NOTIFY_LISTENERS);
+				world.setBlockState(pos.up(), Blocks.AIR.getDefaultState(), Block.NOTIFY_LISTENERS);
+			}
+		}
+
+		/**
+		 * Has the players take turns breaking the next row of the farm. Runs at
+		 * the start of the world's tick, on the thread ticking it.
+		 *
+		 * @return {@code true} once the whole farm has been harvested.
+		 */
+		boolean harvestRow() {
+			try {
+				for (int rowEnd = next + FARM_SIZE; next < rowEnd && next < cropCount(); next++) {
+					players.get(next % players.size()).interactionManager.tryBreakBlock(getPos(next));
+				}
+			} catch (RuntimeException e) {
+				// Keep the world ticking, and fail the test from the server thread instead
+				failure = e;
+			}
+
+			finished = failure != null || next >= cropCount();
+
+			return finished;
+		}
+
+		void checkReplanted(TestContext context) {
+			CropBlock wheat = (CropBlock) Blocks.WHEAT;
+
+			for (int i = 0; i < cropCount(); i++) {
+				context.assertTrue(world.getBlockState(getPos(i)) == wheat.withAge(0),
+						"Expected replanted wheat at " + getPos(i) + " in " + getName() + " but found "
+								+ world.getBlockState(getPos(i)));
+			}
+		}
+
+		/** Counts the wheat dropped around the farm, removing every dropped item. */
+		int collectWheat() {
+			Box area = new Box(origin.getX() - 2, origin.getY() - 2, origin.getZ() - 2, origin.getX() + FARM_SIZE + 2,
+					origin.getY() + 4, origin.getZ() + FARM_SIZE + 2);
+			int wheat = 0;
+
+			for (ItemEntity entity : world.getEntitiesByType(EntityType.ITEM, area, candidate -> true)) {
+				if (entity.getStack().isOf(Items.WHEAT)) {
+					wheat += entity.getStack().getCount();
+				}
+
+				entity.discard();
+			}
+
+			return wheat;
+		}
+
+		void clear() {
+			for (int i = 0; i < cropCount(); i++) {
+				BlockPos pos = getPos(i);
+
+				world.setBlockState(pos, Blocks.AIR.getDefaultState(), Block.NOTIFY_LISTENERS);
+				world.setBlockState(pos.down(), Blocks.AIR.getDefaultState(), Block.NOTIFY_LISTENERS);
+			}
+
+			setChunksForced(false);
+		}
+
+		private void setChunksForced(boolean forced) {
+			int minChunkX = ChunkSectionPos.getSectionCoord(origin.getX());
+			int minChunkZ = ChunkSectionPos.getSectionCoord(origin.getZ());
+			int maxChunkX = ChunkSectionPos.getSectionCoord(origin.getX() + FARM_SIZE - 1);
+			int maxChunkZ = ChunkSectionPos.getSectionCoord(origin.getZ() + FARM_SIZE - 1);
+
+			for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+				for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+					world.setChunkForced(chunkX, chunkZ, forced);
+				}
+			}
+		}
+
+		private BlockPos getPos(int index) {
+			return origin.add(index % FARM_SIZE, 1, index / FARM_SIZE);
+		}
+	}
+}
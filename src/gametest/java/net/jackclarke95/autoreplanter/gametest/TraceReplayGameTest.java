@@ -0,0 +1,312 @@
+package net.jackclarke95.autoreplanter.gametest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mojang.authlib.GameProfile;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.jackclarke95.autoreplanter.AutoReplanter;
+import net.jackclarke95.autoreplanter.HarvestTrace;
+import net.jackclarke95.autoreplanter.LatencyHistogram;
+import net.jackclarke95.autoreplanter.ReplantMetrics;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.command.argument.BlockArgumentParser;
+import net.minecraft.enchantment.Enchantment;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import net.minecraft.util.Hand;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+
+/**
+ * Replays a recorded harvest trace through the mod's block break and use
+ * handlers, to benchmark a build against real traffic.
+ * <p>
+ * Does nothing unless a trace is given with
+ * {@code -Dautoreplanter.gametest.replayTrace=<file>}. Block states and tools
+ * are resolved by name from the trace's palette, so traces recorded with
+ * other versions of the game or mod pack can be replayed as long as the blocks
+ * and items still exist. Each break is passed to
+ * {@link AutoReplanter#handleBreak} and each right-click harvest to
+ * {@link AutoReplanter#handleUse}, the same methods the server calls, so load
+ * shedding, rate limits, area harvests, tool damage and the statistics all
+ * apply, using the configuration in the GameTest run directory. The world is
+ * only a stand-in: every break is placed and handled at one scratch position
+ * in the test area, by a fake player holding the recorded tool, rather than
+ * where it was recorded. As the whole trace is replayed within one tick, an
+ * enabled rate limit throttles it like a single huge burst.
+ * </p>
+ * <p>
+ * The trace is replayed {@code -Dautoreplanter.gametest.replayWarmupPasses}
+ * times (1 by default) to warm up the JIT, then once more while measuring. The
+ * throughput, the outcome counts and the handler latency of the measured pass
+ * are logged. The time spent in each stage can be recorded with the
+ * {@code autoreplanter.jfc} flight recorder profile.
+ * </p>
+ */
+public class TraceReplayGameTest implements FabricGameTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AutoReplanterGameTestMod.MOD_ID);
+
+	@Nullable
+	private static final String TRACE = System.getProperty("autoreplanter.gametest.replayTrace");
+	private static final int WARMUP_PASSES = Integer.getInteger("autoreplanter.gametest.replayWarmupPasses", 1);
+
+	@GameTest(templateName = EMPTY_STRUCTURE, batchId = "autoreplanter_replay")
+	public void replayHarvestTrace(TestContext context) {
+		if (TRACE == null) {
+			context.complete();
+
+			return;
+		}
+
+		ServerWorld world = context.getWorld();
+		AutoReplanter mod = MassHarvestGameTest.findMod();
+		RegistryEntry<Enchantment> enchantment = AutoReplanter.findAutoReplanterEnchantment(
+				world.getRegistryManager());
+		TraceLoader trace = new TraceLoader(enchantment);
+
+		try {
+			HarvestTrace.read(Path.of(TRACE), trace);
+		} catch (IOException e) {
+			context.throwGameTestException("Failed to read harvest trace " + TRACE + ": " + e.getMessage());
+		}
+
+		context.assertTrue(!trace.states.isEmpty(), "Harvest trace " + TRACE + " has no replayable breaks");
+
+		BlockPos scratch = context.getAbsolutePos(new BlockPos(0, 1, 0));
+		Replayer replayer = null;
+
+		try {
+			for (int pass = 0; pass <= WARMUP_PASSES; pass++) {
+				replayer = new Replayer(mod, world, scratch);
+				replayer.replay(trace);
+			}
+		} finally {
+			world.setBlockState(scratch, Blocks.AIR.getDefaultState(), Block.NOTIFY_LISTENERS);
+		}
+
+		replayer.log(trace);
+
+		// Drops consolidated per tick are only spawned at the end of the world's tick
+		Replayer measured = replayer;
+
+		context.waitAndRun(2, () -> {
+			measured.cleanUp();
+			world.setBlockState(scratch, Blocks.AIR.getDefaultState(), Block.NOTIFY_LISTENERS);
+			context.complete();
+		});
+	}
+
+	/**
+	 * Reads a trace into memory, resolving its palette against the current
+	 * registries.
+	 */
+	private static final class TraceLoader implements HarvestTrace.Visitor {
+
+		@Nullable
+		private final RegistryEntry<Enchantment> enchantment;
+
+		private final Int2ObjectMap<BlockState> statePalette = new Int2ObjectOpenHashMap<>();
+		private final Int2ObjectMap<Item> itemPalette = new Int2ObjectOpenHashMap<>();
+
+		/** Tool stacks by raw item ID and enchantment, shared by all breaks with them. */
+		private final Int2ObjectMap<ItemStack> toolStacks = new Int2ObjectOpenHashMap<>();
+
+		final List<BlockState> states = new ArrayList<>();
+		final List<ItemStack> tools = new ArrayList<>();
+		final ByteArrayList flags = new ByteArrayList();
+
+		int skipped;
+		int firstTick = -1;
+		int lastTick;
+
+		TraceLoader(@Nullable RegistryEntry<Enchantment> enchantment) {
+			this.enchantment = enchantment;
+		}
+
+		@Override
+		public void blockState(int rawId, String state) {
+			try {
+				statePalette.put(rawId, BlockArgumentParser.block(Registries.BLOCK.getReadOnlyWrapper(), state, false)
+						.blockState());
+			} catch (CommandSyntaxException e) {
+				LOGGER.warn("Skipping unknown block state {} in harvest trace: {}", state, e.getMessage());
+			}
+		}
+
+		@Override
+		public void item(int rawId, String item) {
+			Identifier id = Identifier.tryParse(item);
+
+			if (id != null && Registries.ITEM.containsId(id)) {
+				itemPalette.put(rawId, Registries.ITEM.get(id));
+			} else {
+				LOGGER.warn("Skipping unknown item {} in harvest trace", item);
+			}
+		}
+
+		@Override
+		public void blockBreak(int stateId, int itemId, int breakFlags, long position, int tick) {
+			BlockState state = statePalette.get(stateId);
+			Item item = itemPalette.get(itemId);
+
+			if (firstTick < 0) {
+				firstTick = tick;
+			}
+
+			lastTick = tick;
+
+			if (state == null || item == null) {
+				skipped++;
+
+				return;
+			}
+
+			int enchanted = (breakFlags & HarvestTrace.AUTO_REPLANTER) != 0 ? 1 : 0;
+
+			states.add(state);
+			tools.add(toolStacks.computeIfAbsent(itemId * 2 + enchanted, key -> createTool(item, breakFlags)));
+			flags.add((byte) breakFlags);
+		}
+
+		/**
+		 * Creates a tool stack for breaks with an item and flags. Only the Auto
+		 * Replanter enchantment is recorded, so other enchantments are left off.
+		 */
+		private ItemStack createTool(Item item, int breakFlags) {
+			ItemStack stack = new ItemStack(item);
+
+			if ((breakFlags & HarvestTrace.AUTO_REPLANTER) != 0 && enchantment != null) {
+				stack.addEnchantment(enchantment, 1);
+			}
+
+			return stack;
+		}
+	}
+
+	/**
+	 * Feeds the breaks of a trace through the mod's own break and use handlers,
+	 * measuring each.
+	 */
+	private static final class Replayer {
+
+		/** Breaks between clearing the drops left at the scratch position. */
+		private static final int CLEAN_UP_INTERVAL = 256;
+
+		private final AutoReplanter mod;
+		private final ServerWorld world;
+		private final BlockPos scratch;
+		private final FakePlayer player;
+		private final long cacheHitsBefore;
+		private final long cacheMissesBefore;
+
+		private long elapsedNanos;
+		private int leftToVanilla;
+
+		Replayer(AutoReplanter mod, ServerWorld world, BlockPos scratch) {
+			this.mod = mod;
+			this.world = world;
+			this.scratch = scratch;
+			this.player = FakePlayer.get(world, new GameProfile(UUID.randomUUID(), "TraceReplayer"));
+			this.cacheHitsBefore = mod.getDropCache().getHits();
+			this.cacheMissesBefore = mod.getDropCache().getMisses();
+		}
+
+		void replay(TraceLoader trace) {
+			for (int i = 0; i < trace.states.size(); i++) {
+				BlockState state = trace.states.get(i);
+				int flags = trace.flags.getByte(i);
+
+				// Tools are copied, as the handlers damage them
+				player.setStackInHand(Hand.MAIN_HAND, trace.tools.get(i).copy());
+				player.setSneaking((flags & HarvestTrace.SNEAKING) != 0);
+				world.setBlockState(scratch, state, Block.NOTIFY_LISTENERS);
+
+				long start = System.nanoTime();
+
+				if ((flags & HarvestTrace.RIGHT_CLICK) != 0) {
+					mod.handleUse(world, player, scratch);
+				} else if (mod.handleBreak(world, player, scratch, state, world.getBlockEntity(scratch))) {
+					leftToVanilla++;
+				}
+
+				elapsedNanos += System.nanoTime() - start;
+
+				if (i % CLEAN_UP_INTERVAL == CLEAN_UP_INTERVAL - 1) {
+					cleanUp();
+				}
+			}
+
+			cleanUp();
+		}
+
+		/** Removes the drops delivered to the player or spawned around the scratch position. */
+		void cleanUp() {
+			player.getInventory().clear();
+
+			for (ItemEntity entity : world.getEntitiesByType(EntityType.ITEM, new Box(scratch).expand(2),
+					candidate -> true)) {
+				entity.discard();
+			}
+		}
+
+		void log(TraceLoader trace) {
+			int breaks = trace.states.size();
+			double recordedSeconds = Math.max(1, trace.lastTick - trace.firstTick) / 20.0;
+			ReplantMetrics metrics = mod.getStats().getPlayers().getOrDefault(player.getUuid(),
+					new ReplantMetrics());
+
+			LOGGER.info("[trace replay] {}: {} breaks ({} skipped) recorded over {}s, {} breaks/s", TRACE, breaks,
+					trace.skipped, String.format(Locale.ROOT, "%.1f", recordedSeconds),
+					String.format(Locale.ROOT, "%.1f", (breaks + trace.skipped) / recordedSeconds));
+			LOGGER.info("[trace replay] replayed in {} ms: {} breaks/s, {} left to vanilla, drop cache hits={} "
+					+ "misses={}", String.format(Locale.ROOT, "%.3f", elapsedNanos / 1_000_000.0),
+					String.format(Locale.ROOT, "%.0f", breaks / (elapsedNanos / 1_000_000_000.0)), leftToVanilla,
+					mod.getDropCache().getHits() - cacheHitsBefore,
+					mod.getDropCache().getMisses() - cacheMissesBefore);
+
+			StringBuilder counters = new StringBuilder();
+
+			for (ReplantMetrics.Counter counter : ReplantMetrics.Counter.values()) {
+				long value = metrics.get(counter);
+
+				if (value > 0) {
+					counters.append(' ').append(counter.getDisplayName()).append('=').append(value);
+				}
+			}
+
+			LatencyHistogram latency = metrics.getHandlerLatency();
+			long count = latency.getCount();
+			double averageMicros = count > 0 ? latency.getTotalNanos() / 1_000.0 / count : 0;
+
+			LOGGER.info("[trace replay] outcomes:{}", counters);
+			LOGGER.info("[trace replay] handler: count={} avg={}us {}", count,
+					String.format(Locale.ROOT, "%.3f", averageMicros), latency.formatBuckets());
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.enchantment.Enchantment;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+
+/**
+ * Benchmarks the per-break decision path with the mod's real classes: the
+ * sneak check, {@link ConfigSnapshot#isValidTool} and the
+ * {@link ReplantPlanTable} lookup, which covers crops, custom replacement
+ * targets and the other replant strategies.
+ * <p>
+ * The vanilla registries are bootstrapped by {@link MinecraftBootstrap}, and
+ * the snapshot is compiled from the default configuration, with custom
+ * replacements for vanilla mushroom blocks instead of the Farmer's Delight
+ * ones. Each benchmark walks the same randomised sample of broken block states
+ * and held tools.
+ * </p>
+ * <p>
+ * Tools carry real enchantment components with {@link #enchantmentCount}
+ * enchantments. The companion data pack is not loaded, so a vanilla
+ * enchantment stands in for Auto Replanter, resolved once like the real one,
+ * and is on a quarter of the tools. {@link #toolCheck} and
+ * {@link #enchantmentLookup} should cost the same whatever the count, as the
+ * level is a single lookup of the resolved entry in the component.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecisionPathBenchmark {
+
+	private static final int SAMPLES = 1 << 12;
+	private static final int SAMPLE_MASK = SAMPLES - 1;
+
+	/** Number of enchantments on each sampled tool. */
+	@Param({ "1", "4", "16" })
+	public int enchantmentCount;
+
+	private final SneakMode[] sneakModes = SneakMode.values();
+	private final boolean[] sneaking = new boolean[SAMPLES];
+	private final BlockState[] states = new BlockState[SAMPLES];
+	private final ItemStack[] tools = new ItemStack[SAMPLES];
+
+	private ConfigSnapshot snapshot;
+
+	private int cursor;
+
+	@Setup
+	public void setup() {
+		List<RegistryEntry<Enchantment>> enchantments = new ArrayList<>(MinecraftBootstrap.initialize()
+				.getWrapperOrThrow(RegistryKeys.ENCHANTMENT).streamEntries().toList());
+		RegistryEntry<Enchantment> autoReplanter = enchantments.remove(0);
+		AutoReplanterConfig config = new AutoReplanterConfig();
+
+		config.customBlockReplacements = List.of(
+				new AutoReplanterConfig.CustomBlockReplacement("minecraft:brown_mushroom_block",
+						"minecraft:brown_mushroom", true),
+				new AutoReplanterConfig.CustomBlockReplacement("minecraft:red_mushroom_block",
+						"minecraft:red_mushroom", true));
+		snapshot = ConfigSnapshot.compile(config, autoReplanter);
+
+		Random random = new Random(42);
+		List<BlockState> allStates = new ArrayList<>();
+		List<BlockState> candidates = new ArrayList<>();
+		List<Item> items = Registries.ITEM.stream().toList();
+
+		for (BlockState state : Block.STATE_IDS) {
+			allStates.add(state);
+
+			if (snapshot.replantPlans.get(state) != null) {
+				candidates.add(state);
+			}
+		}
+
+		// Half replant candidates, as on a farm, and half any other block
+		for (int i = 0; i < SAMPLES; i++) {
+			List<BlockState> source = random.nextBoolean() ? candidates : allStates;
+
+			sneaking[i] = random.nextBoolean();
+			states[i] = source.get(random.nextInt(source.size()));
+			tools[i] = new ItemStack(items.get(random.nextInt(items.size())));
+
+			Collections.shuffle(enchantments, random);
+
+			boolean hasAutoReplanter = random.nextInt(4) == 0;
+
+			if (hasAutoReplanter) {
+				tools[i].addEnchantment(autoReplanter, 1);
+			}
+
+			for (int e = hasAutoReplanter ? 1 : 0; e < enchantmentCount; e++) {
+				tools[i].addEnchantment(enchantments.get(e), 1);
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean sneakCheck() {
+		int i = cursor++ & SAMPLE_MASK;
+
+		return sneakModes[i % sneakModes.length].permits(sneaking[i]);
+	}
+
+	@Benchmark
+	public boolean toolCheck() {
+		return snapshot.isValidTool(tools[cursor++ & SAMPLE_MASK]);
+	}
+
+	@Benchmark
+	public int enchantmentLookup() {
+		return snapshot.getAutoReplanterLevel(tools[cursor++ & SAMPLE_MASK]);
+	}
+
+	@Benchmark
+	public ReplantPlan planResolution() {
+		return snapshot.replantPlans.get(states[cursor++ & SAMPLE_MASK]);
+	}
+}
@@ -0,0 +1,102 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Benchmarks the post-processing of loot in {@code processLoot}: taking the
+ * replanted seed out of the drops with
+ * {@link ReplantDropCache#removeReplantItem}, then either spawning every stack
+ * or consolidating them with {@link DropPool#add}.
+ * <p>
+ * Loot tables cannot be evaluated and item entities cannot be spawned without
+ * a world, so drops are rolled like the vanilla wheat loot table, and the
+ * stacks that would be spawned are sunk into a {@link Blackhole}. The
+ * interesting figure is how many item entities each strategy leaves to spawn
+ * per harvest.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LootPostProcessingBenchmark {
+
+	/** Number of crops harvested in one operation, e.g. 9 for a radius 1 area. */
+	@Param({ "1", "9", "25" })
+	public int cropsPerHarvest;
+
+	@Setup
+	public void setup() {
+		MinecraftBootstrap.initialize();
+	}
+
+	@Benchmark
+	public int spawnPerStack(Blackhole blackhole) {
+		int spawned = 0;
+
+		for (int crop = 0; crop < cropsPerHarvest; crop++) {
+			List<ItemStack> drops = rollMatureWheat();
+
+			ReplantDropCache.removeReplantItem(drops, Items.WHEAT_SEEDS);
+
+			for (ItemStack stack : drops) {
+				blackhole.consume(stack);
+				spawned++;
+			}
+		}
+
+		return spawned;
+	}
+
+	@Benchmark
+	public int consolidate(Blackhole blackhole) {
+		// The pool is never spawned, so it needs no world or player
+		DropPool pool = new DropPool(null, null);
+
+		for (int crop = 0; crop < cropsPerHarvest; crop++) {
+			List<ItemStack> drops = rollMatureWheat();
+
+			ReplantDropCache.removeReplantItem(drops, Items.WHEAT_SEEDS);
+
+			for (ItemStack stack : drops) {
+				pool.add(BlockPos.ORIGIN, stack);
+			}
+		}
+
+		blackhole.consume(pool);
+
+		return pool.size();
+	}
+
+	/** Rolls drops like the vanilla wheat loot table for a mature crop without Fortune. */
+	private static List<ItemStack> rollMatureWheat() {
+		List<ItemStack> drops = new ArrayList<>(2);
+
+		drops.add(new ItemStack(Items.WHEAT));
+		drops.add(new ItemStack(Items.WHEAT_SEEDS, ThreadLocalRandom.current().nextInt(1, 5)));
+
+		return drops;
+	}
+}
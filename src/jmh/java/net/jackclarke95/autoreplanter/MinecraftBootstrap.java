@@ -0,0 +1,51 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.item.HoeItem;
+import net.minecraft.item.Item;
+import net.minecraft.registry.BuiltinRegistries;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.ItemTags;
+
+/**
+ * Bootstraps the vanilla registries once per benchmark JVM, so the benchmarks
+ * can run the mod's real classes without starting a server.
+ * <p>
+ * No data packs are loaded, so the item tags used by the default
+ * configuration are bound by hand, and the dynamic registries, such as
+ * enchantments, are the vanilla built-in ones.
+ * </p>
+ */
+final class MinecraftBootstrap {
+
+	private static RegistryWrapper.WrapperLookup registries;
+
+	private MinecraftBootstrap() {
+	}
+
+	/**
+	 * Bootstraps the registries, if not done yet.
+	 *
+	 * @return The built-in dynamic registries.
+	 */
+	static synchronized RegistryWrapper.WrapperLookup initialize() {
+		if (registries == null) {
+			SharedConstants.createGameVersion();
+			Bootstrap.initialize();
+
+			List<RegistryEntry<Item>> hoes = Registries.ITEM.stream().filter(item -> item instanceof HoeItem)
+					.map(Registries.ITEM::getEntry).toList();
+
+			Registries.ITEM.populateTags(Map.of(ItemTags.HOES, hoes));
+			registries = BuiltinRegistries.createWrapperLookup();
+		}
+
+		return registries;
+	}
+}
@@ -0,0 +1,71 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+/**
+ * Enumeration defining which blocks around a harvested crop are included in an
+ * area harvest.
+ * <p>
+ * This enum provides two different shapes:
+ * </p>
+ * <ul>
+ * <li>{@link #SQUARE} - Every block within the radius on the same layer</li>
+ * <li>{@link #ROW} - Blocks within the radius along the player's facing
+ * direction</li>
+ * </ul>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#areaHarvestShape
+ */
+public enum AreaHarvestShape {
+    /**
+     * Harvests a square centred on the broken block, extending the radius in
+     * every horizontal direction.
+     */
+    SQUARE,
+
+    /**
+     * Harvests a single row through the broken block, extending the radius
+     * forwards and backwards along the direction the player is facing.
+     * <p>
+     * This mode suits farms laid out in long rows separated by water or paths.
+     * </p>
+     */
+    ROW;
+
+    /**
+     * Gets the positions covered by this shape, excluding the origin itself.
+     *
+     * @param origin The position of the block broken by the player.
+     * @param radius The number of blocks to extend from the origin.
+     * @param facing The horizontal direction the player is facing.
+     * @return The positions to harvest around the origin.
+     */
+    public List<BlockPos> getPositions(BlockPos origin, int radius, Direction facing) {
+        List<BlockPos> positions = new ArrayList<>();
+
+        if (this == ROW) {
+            for (int i = 1; i <= radius; i++) {
+                positions.add(origin.offset(facing, i));
+                positions.add(origin.offset(facing, -i));
+            }
+
+            return positions;
+        }
+
+        for (int x = -radius; x <= radius; x++) {
+            for (int z = -radius; z <= radius; z++) {
+                if (x != 0 || z != 0) {
+                    positions.add(origin.add(x, 0, z));
+                }
+            }
+        }
+
+        return positions;
+    }
+}
@@ -0,0 +1,224 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.mojang.authlib.GameProfile;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+/**
+ * Incrementally harvests the mature crops in loaded chunks without a player.
+ * <p>
+ * Each world is worked through in rounds: a round visits every chunk section
+ * that the {@link MatureCropIndex} knows has mature crops, in order, and a new
+ * round starts at most every {@link AutoReplanterConfig#autoHarvestIntervalTicks}
+ * ticks. Work is done at the end of each server tick within a time budget
+ * shared by all worlds. Worlds take turns going first, and budget left over by
+ * a world with nothing to do is used by the next, so a busy world is never
+ * starved while others idle and no tick spends more than the budget.
+ * </p>
+ * <p>
+ * Only crops in chunks that are currently ticking are harvested, matching where
+ * crops grow. Harvests are attributed to a fake player, {@value #PLAYER_NAME}.
+ * Only used from the server thread.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#enableAutoHarvest
+ */
+public final class AutoHarvestScheduler {
+
+	/** Name of the fake player harvests are attributed to. */
+	public static final String PLAYER_NAME = "[Auto Replanter]";
+
+	/** Profile of the fake player harvests are attributed to. */
+	private static final GameProfile PROFILE = new GameProfile(
+			UUID.fromString("5f0b6c52-3d8e-4b8c-9a51-6a3c1b0e7d21"), PLAYER_NAME);
+
+	/**
+	 * Harvests one crop found by the scheduler.
+	 */
+	@FunctionalInterface
+	public interface Harvester {
+		/**
+		 * Harvests and replants the crop at a position, if it is still mature.
+		 *
+		 * @param world    The world the crop is in.
+		 * @param player   The fake player to attribute the harvest to.
+		 * @param position The packed position of the crop.
+		 */
+		void harvest(ServerWorld world, PlayerEntity player, long position);
+	}
+
+	private final Map<ServerWorld, WorldCursor> cursors = new HashMap<>();
+
+	/** Index of the world that goes first in the next tick. */
+	private int firstWorld;
+
+	/**
+	 * Gets the fake player that automatic harvests in a world are attributed to.
+	 *
+	 * @param world The world.
+	 * @return The world's auto-harvest player.
+	 */
+	public static PlayerEntity getPlayer(ServerWorld world) {
+		return FakePlayer.get(world, PROFILE);
+	}
+
+	/**
+	 * Checks whether a player is the fake player used for automatic harvests.
+	 *
+	 * @param player The player to check.
+	 * @return {@code true} if the player is an auto-harvest player.
+	 */
+	public static boolean isAutoHarvestPlayer(PlayerEntity player) {
+		return player instanceof FakePlayer && PROFILE.getId().equals(player.getUuid());
+	}
+
+	/**
+	 * Harvests crops across all worlds until the budget runs out or there is
+	 * nothing left to do. At least one crop is harvested if any are due.
+	 *
+	 * @param worlds        The server's worlds.
+	 * @param budgetNanos   The time budget for this tick, in nanoseconds.
+	 * @param intervalTicks The minimum number of ticks between the starts of two
+	 *                      rounds in the same world.
+	 * @param harvester     Harvests each crop.
+	 * @return The number of crops visited.
+	 */
+	public int tick(Iterable<ServerWorld> worlds, long budgetNanos, long intervalTicks, Harvester harvester) {
+		List<ServerWorld> worldList = new ArrayList<>();
+
+		worlds.forEach(worldList::add);
+
+		if (worldList.isEmpty()) {
+			return 0;
+		}
+
+		long start = System.nanoTime();
+		int visited = 0;
+
+		for (int i = 0; i < worldList.size(); i++) {
+			ServerWorld world = worldList.get((firstWorld + i) % worldList.size());
+			WorldCursor cursor = cursors.computeIfAbsent(world, key -> new WorldCursor());
+			PlayerEntity player = null;
+
+			while (visited == 0 || System.nanoTime() - start < budgetNanos) {
+				long position = cursor.next(world, intervalTicks);
+
+				if (position == WorldCursor.NONE) {
+					break;
+				}
+
+				if (player == null) {
+					player = getPlayer(world);
+				}
+
+				harvester.harvest(world, player, position);
+				visited++;
+			}
+
+			if (System.nanoTime() - start >= budgetNanos && visited > 0) {
+				break;
+			}
+		}
+
+		firstWorld = (firstWorld + 1) % worldList.size();
+
+		return visited;
+	}
+
+	/**
+	 * Forgets a world that is being unloaded.
+	 *
+	 * @param world The world being unloaded.
+	 */
+	public void onWorldUnload(ServerWorld world) {
+		cursors.remove(world);
+	}
+
+	/**
+	 * Gets the number of chunk sections left to visit in a world's current round.
+	 *
+	 * @param world The world.
+	 * @return The number of sections left.
+	 */
+	public int getPendingSections(ServerWorld world) {
+		WorldCursor cursor = cursors.get(world);
+
+		return cursor != null ? cursor.sections.size() - cursor.nextSection : 0;
+	}
+
+	/**
+	 * Progress through the current round of one world.
+	 */
+	private static final class WorldCursor {
+		/** Returned by {@link #next} when there is nothing to harvest. */
+		static final long NONE = Long.MIN_VALUE;
+
+		final LongArrayList sections = new LongArrayList();
+		final LongArrayList crops = new LongArrayList();
+		int nextSection;
+		int nextCrop;
+		long roundStartTime = Long.MIN_VALUE;
+
+		/**
+		 * Gets the next crop to harvest, moving on to the next section or round as
+		 * needed.
+		 *
+		 * @return The packed position of the crop, or {@link #NONE} if the round is
+		 *         over and the next one is not due yet.
+		 */
+		long next(ServerWorld world, long intervalTicks) {
+			boolean startedRound = false;
+
+			while (nextCrop >= crops.size()) {
+				if (nextSection >= sections.size()) {
+					// Start at most one round per call, in case nothing in it can be harvested
+					if (startedRound || !startRound(world, intervalTicks)) {
+						return NONE;
+					}
+
+					startedRound = true;
+				}
+
+				long section = sections.getLong(nextSection++);
+
+				crops.clear();
+				nextCrop = 0;
+
+				if (world.shouldTickBlocksInChunk(
+						ChunkPos.toLong(ChunkSectionPos.unpackX(section), ChunkSectionPos.unpackZ(section)))) {
+					MatureCropIndex.of(world).collectMatureCropsInSection(section, crops);
+				}
+			}
+
+			return crops.getLong(nextCrop++);
+		}
+
+		private boolean startRound(ServerWorld world, long intervalTicks) {
+			long time = world.getTime();
+
+			if (roundStartTime != Long.MIN_VALUE && time - roundStartTime < intervalTicks) {
+				return false;
+			}
+
+			sections.clear();
+			nextSection = 0;
+			roundStartTime = time;
+			MatureCropIndex.of(world).collectSections(sections);
+
+			return !sections.isEmpty();
+		}
+	}
+}
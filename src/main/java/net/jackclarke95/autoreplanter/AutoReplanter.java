@@ -1,31 +1,54 @@
 package net.jackclarke95.autoreplanter;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.jetbrains.annotations.Nullable;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.fabricmc.fabric.api.event.player.PlayerBlockBreakEvents;
+import net.fabricmc.fabric.api.event.player.UseBlockCallback;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.CropBlock;
 import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.enchantment.Enchantment;
 import net.minecraft.entity.EquipmentSlot;
-import net.minecraft.entity.ItemEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryKeys;
-import net.minecraft.registry.Registries;
-import net.minecraft.registry.tag.TagKey;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.Hand;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.World;
+import net.minecraft.world.event.GameEvent;
 
 /**
  * Main mod class for the Auto Replanter mod.
@@ -43,6 +66,8 @@ import net.minecraft.world.World;
  * <li>Tool durability management with enchantment support</li>
  * <li>Mature vs immature crop handling</li>
  * <li>Support for modded crops that extend {@link CropBlock}</li>
+ * <li>Support for other plants through {@link ReplantStrategy replant
+ * strategies}</li>
  * </ul>
  * </p>
  * 
@@ -53,30 +78,52 @@ import net.minecraft.world.World;
  */
 public class AutoReplanter implements ModInitializer {
 
-	/** The loaded configuration for this mod instance. */
-	private AutoReplanterConfig config;
+	/** Registry key of the enchantment added by the companion data pack. */
+	public static final RegistryKey<Enchantment> AUTO_REPLANTER_ENCHANTMENT = RegistryKey.of(
+			RegistryKeys.ENCHANTMENT, Identifier.of("autoreplanter", "auto_replanter"));
 
-	/** Set of parsed tool tags that are considered valid for auto-replanting. */
-	private Set<TagKey<Item>> validToolTags;
+	/** Directory harvest traces are recorded to. */
+	private static final Path TRACE_DIRECTORY = FabricLoader.getInstance().getGameDir()
+			.resolve("autoreplanter-traces");
 
-	/** Set of tool ID strings that are considered valid for auto-replanting. */
-	private Set<String> validToolIds;
+	/**
+	 * The configuration and everything compiled from it, replaced as a whole on
+	 * config or data pack reload.
+	 */
+	private volatile ConfigSnapshot snapshot;
 
-	// When building the map
-	private Map<String, CustomBlockReplacementEntry> customReplacementMap;
+	/** Serialises snapshot compilation so concurrent reloads cannot lose updates. */
+	private final Object snapshotLock = new Object();
 
-	// Helper class for fast lookup
-	private static class CustomBlockReplacementEntry {
-		public final Block replacementBlock;
-		public final Item replacementItem;
-		public final boolean damageTool;
+	/** The running server, to send reloaded replant rules to its players. */
+	@Nullable
+	private volatile MinecraftServer server;
 
-		public CustomBlockReplacementEntry(Block replacementBlock, Item replacementItem, boolean damageTool) {
-			this.replacementBlock = replacementBlock;
-			this.replacementItem = replacementItem;
-			this.damageTool = damageTool;
-		}
-	}
+	/** Reloads the config file off the server thread. */
+	private final ConfigReloader reloader = new ConfigReloader(this::publishConfig);
+
+	/** Records block breaks for offline replay, while enabled. */
+	@Nullable
+	private volatile HarvestTraceRecorder traceRecorder;
+
+	/*
+	 * Consolidated drops, deferred replants, batched tool damage and harvest rate
+	 * limits are kept per world in WorldReplantState, so worlds ticking on
+	 * separate threads never share them. The fields below are immutable or safe
+	 * for concurrent use.
+	 */
+
+	/** Memoized drops of harvests with deterministic loot, cleared on data pack reload. */
+	private final ReplantDropCache dropCache = new ReplantDropCache();
+
+	/** Decides how much work to do from the server's tick times. */
+	private final LoadShedder loadShedder = new LoadShedder();
+
+	/** Harvests mature crops in loaded chunks when auto-harvest is enabled. */
+	private final AutoHarvestScheduler autoHarvester = new AutoHarvestScheduler();
+
+	/** Runtime statistics shown by the {@code /autoreplanter stats} command. */
+	private final ReplantStats stats = new ReplantStats();
 
 	/**
 	 * Initializes the Auto Replanter mod.
@@ -85,130 +132,361 @@ public class AutoReplanter implements ModInitializer {
 	 * following:
 	 * <ul>
 	 * <li>Loads the configuration from the config file</li>
-	 * <li>Parses tool tags from string format to TagKey objects</li>
-	 * <li>Stores valid tool IDs as strings for direct comparison</li>
+	 * <li>Collects the replant strategies of other mods</li>
+	 * <li>Registers the replant plan and tool validity compilation on tag
+	 * load</li>
 	 * <li>Registers the block break event handler</li>
+	 * <li>Registers the {@code /autoreplanter} command</li>
+	 * <li>Watches the config file for changes while the server is running</li>
+	 * <li>Indexes the mature crops in loaded chunks</li>
+	 * <li>Sends the replant rules to joining players for client-side
+	 * prediction</li>
 	 * </ul>
 	 * </p>
 	 */
 	@Override
 	public void onInitialize() {
 		// Load configuration
-		config = ConfigManager.loadConfig();
-
-		// Convert string tags to TagKey objects
-		validToolTags = config.validToolTags.stream()
-				.map(this::parseTagString)
-				.collect(Collectors.toSet());
-
-		// Store valid tool IDs as strings for direct comparison
-		validToolIds = Set.copyOf(config.validTools);
-
-		// Build custom replacement map (target block ID -> entry)
-		customReplacementMap = new HashMap<>();
-		for (AutoReplanterConfig.CustomBlockReplacement rule : config.customBlockReplacements) {
-			Block replacement = Registries.BLOCK.get(Identifier.of(rule.replacement));
-			if (replacement != null) {
-				customReplacementMap.put(
-						rule.target,
-						new CustomBlockReplacementEntry(replacement, replacement.asItem(), rule.damageTool));
+		snapshot = ConfigSnapshot.uncompiled(ConfigManager.loadConfig());
+
+		// Strategies must all be registered before the first compilation on tag load
+		ReplantStrategies.runEntrypoints();
+
+		// Compile the replant plans and tool validity, and resolve the enchantment,
+		// once all registries and tags are available and again whenever data packs
+		// are reloaded
+		CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+			if (!client) {
+				synchronized (snapshotLock) {
+					setSnapshot(ConfigSnapshot.compile(snapshot.config, findAutoReplanterEnchantment(registries)));
+				}
 			}
-		}
+		});
 
-		PlayerBlockBreakEvents.BEFORE.register((world, player, position, state, blockEntity) -> {
-			if (world.isClient || !config.enableAutoReplanting || !isValidSneakRequirements(player)) {
-				return true;
+		UseBlockCallback.EVENT.register((player, world, hand, hitResult) -> {
+			if (hand != Hand.MAIN_HAND) {
+				return ActionResult.PASS;
 			}
 
-			ItemStack mainTool = player.getMainHandStack();
+			return handleUse(world, player, hitResult.getBlockPos());
+		});
+
+		PlayerBlockBreakEvents.BEFORE.register(this::handleBreak);
 
-			if (config.requireTool && !isValidTool(mainTool)) {
-				return true;
-			}
+		CommandRegistrationCallback.EVENT.register(
+				(dispatcher, registryAccess, environment) -> AutoReplanterCommand.register(dispatcher, this));
 
-			// Get the block ID string directly from the block being broken
-			String blockId = Registries.BLOCK.getId(state.getBlock()).toString();
-			Block block = state.getBlock();
+		// Cached drops are only valid for the loot tables and tags they were evaluated with
+		ServerLifecycleEvents.SERVER_STARTING.register(server -> dropCache.invalidate());
+		ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> {
+			dropCache.invalidate();
+		});
 
-			// Early exit checks
-			boolean isCustomBlock = config.useCustomBlockReplacements && customReplacementMap.containsKey(blockId);
-			boolean isCropBlock = block instanceof CropBlock;
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+			this.server = server;
 
-			// If neither condition is met, allow normal block breaking
-			if (!isCustomBlock && !isCropBlock) {
-				return true;
+			if (snapshot.config.watchConfigFile) {
+				reloader.startWatching();
 			}
 
-			// Handle crop replacement
-			if (isCropBlock) {
-				CropBlock cropBlock = (CropBlock) block;
-				handleCropReplacement(world, player, position, state, blockEntity, mainTool, cropBlock);
+			updateTraceRecorder(snapshot.config.recordHarvestTrace);
+		});
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+			reloader.stopWatching();
+			updateTraceRecorder(false);
+		});
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> this.server = null);
 
-				return false;
+		// Share the replant rules with clients that can predict replants
+		PayloadTypeRegistry.playS2C().register(ReplantRulesPayload.ID, ReplantRulesPayload.CODEC);
+		ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+			sendReplantRules(handler.getPlayer(), snapshot.config);
+		});
+		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+			// Players may have left buckets behind in every world they visited
+			for (ServerWorld world : server.getWorlds()) {
+				WorldReplantState.of(world).getRateLimiter().remove(handler.getPlayer());
 			}
+		});
 
-			// Handle custom block replacement
-			if (isCustomBlock) {
-				handleCustomBlockReplacement(world, player, position, state, blockEntity, mainTool, blockId);
+		// Track where mature crops are in loaded chunks
+		ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> MatureCropIndex.of(world).onChunkLoad(chunk));
+		ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> MatureCropIndex.of(world).onChunkUnload(chunk));
 
-				return false;
+		// Each world's state is only touched while that world ticks, whichever thread it is on
+		ServerTickEvents.END_WORLD_TICK.register(world -> {
+			drainDeferredReplants(world, snapshot.config.deferredReplantBudgetMicros * 1000L);
+			flushWorldState(world);
+		});
+		ServerTickEvents.END_SERVER_TICK.register(server -> {
+			loadShedder.update(server, snapshot.config);
+			runAutoHarvest(server.getWorlds());
+			stats.onServerTick();
+
+			HarvestTraceRecorder recorder = traceRecorder;
+
+			if (recorder != null && server.getTicks() % 20 == 0) {
+				recorder.flush();
 			}
+		});
 
-			return true;
+		// Finish any deferred work before a world goes away
+		ServerWorldEvents.UNLOAD.register((server, world) -> {
+			autoHarvester.onWorldUnload(world);
+			drainDeferredReplants(world, Long.MAX_VALUE);
+			flushWorldState(world);
 		});
 	}
 
 	/**
-	 * Handles the replacement logic specifically for crop blocks.
+	 * Handles a block a player is about to break: checks the load level and
+	 * configuration, looks up the block's replant plan, records the break to the
+	 * harvest trace and statistics, and auto-replants it if it applies.
 	 * <p>
-	 * This method processes crop blocks by determining the appropriate seed item
-	 * and creating a new crop block state at age 0 for replanting. It delegates
-	 * the actual block breaking and replanting to {@link #handleBlockBreaking}.
+	 * This is the whole decision path of the block break handler. It is public so
+	 * that trace replay runs exactly the same code as the server.
 	 * </p>
 	 *
-	 * @param world       The world where the crop is being broken.
-	 * @param player      The player breaking the crop.
-	 * @param position    The position of the crop block.
-	 * @param state       The current block state of the crop.
-	 * @param blockEntity The block entity at the crop's position, if any.
-	 * @param mainTool    The tool used to break the crop.
-	 * @param cropBlock   The crop block instance being broken.
+	 * @param world       The world where the block is being broken.
+	 * @param player      The player breaking the block.
+	 * @param position    The position of the block.
+	 * @param state       The current block state.
+	 * @param blockEntity The block entity at the block's position, if any.
+	 * @return {@code true} to let vanilla break the block, {@code false} if it was
+	 *         handled by auto-replanting.
 	 */
-	private void handleCropReplacement(World world, PlayerEntity player, BlockPos position, BlockState state,
-			@Nullable BlockEntity blockEntity, ItemStack mainTool, CropBlock cropBlock) {
-		Item seedItem = cropBlock.asItem();
+	public boolean handleBreak(World world, PlayerEntity player, BlockPos position, BlockState state,
+			@Nullable BlockEntity blockEntity) {
+		if (world.isClient) {
+			return true;
+		}
+
+		// A single volatile read decides how much work the server can afford
+		LoadLevel level = loadShedder.getLevel();
+
+		if (level == LoadLevel.VANILLA) {
+			return true;
+		}
+
+		// Read once, so the whole event sees a single consistent configuration
+		ConfigSnapshot current = snapshot.forLoadLevel(level);
+
+		if (!current.config.enableAutoReplanting) {
+			return true;
+		}
+
+		// Reject blocks that are neither crops nor custom replacement targets before
+		// timing or recording anything but a single counter, as most breaks on a
+		// server are of those
+		ReplantPlan plan = current.replantPlans.get(state);
+
+		if (plan == null) {
+			stats.recordNonCandidate();
+
+			return true;
+		}
 
-		BlockState blockToReplant = cropBlock.withAge(0);
+		recordTrace(world, player, state, position, 0);
 
-		handleBlockBreaking(world, player, position, state, blockEntity, mainTool, blockToReplant, seedItem,
-				isMatureCrop(cropBlock, state));
+		long start = System.nanoTime();
+		ReplantFlightEvents.Harvest event = new ReplantFlightEvents.Harvest();
+
+		event.begin();
+
+		boolean allowVanillaBreak = handleBlockBreakEvent(current, world, player, position, state, blockEntity,
+				plan, event);
+
+		event.commit(state, player);
+		stats.recordHandlerTime(world, player, System.nanoTime() - start);
+
+		return allowVanillaBreak;
 	}
 
 	/**
-	 * Handles the replacement logic for custom block replacements defined in the
-	 * configuration.
+	 * Handles a player right-clicking a block with their main hand: checks the
+	 * configuration, looks up the block's replant plan, records the harvest to
+	 * the harvest trace and statistics, and harvests the crop in place if it
+	 * applies.
 	 * <p>
-	 * This method processes blocks that have custom replacement rules configured,
-	 * using the predefined replacement block and item from the custom replacement
-	 * map.
-	 * It delegates the actual block breaking and replanting to
-	 * {@link #handleBlockBreaking}.
+	 * This is the whole decision path of the use block handler. It is public so
+	 * that trace replay runs exactly the same code as the server.
 	 * </p>
 	 *
+	 * @param world    The world where the block was used.
+	 * @param player   The player using the block.
+	 * @param position The position of the block.
+	 * @return {@link ActionResult#SUCCESS} if the crop was harvested,
+	 *         {@link ActionResult#PASS} to let vanilla handle the interaction.
+	 */
+	public ActionResult handleUse(World world, PlayerEntity player, BlockPos position) {
+		if (world.isClient) {
+			return ActionResult.PASS;
+		}
+
+		ConfigSnapshot current = snapshot.forLoadLevel(loadShedder.getLevel());
+
+		if (!current.config.enableAutoReplanting || !current.config.enableRightClickHarvest) {
+			return ActionResult.PASS;
+		}
+
+		BlockState state = world.getBlockState(position);
+		ReplantPlan plan = current.replantPlans.get(state);
+
+		// Only crops can be reset in place; custom replacements change the block
+		if (plan == null || !plan.mature || !(state.getBlock() instanceof CropBlock)) {
+			return ActionResult.PASS;
+		}
+
+		// Players who could not have broken the crop are not traced, timed or
+		// counted as harvesting it
+		if (player.isSpectator() || !player.canModifyBlocks() || !world.canPlayerModifyAt(player, position)) {
+			return ActionResult.PASS;
+		}
+
+		recordTrace(world, player, state, position, HarvestTrace.RIGHT_CLICK);
+
+		long start = System.nanoTime();
+		ReplantFlightEvents.Harvest event = new ReplantFlightEvents.Harvest();
+
+		event.begin();
+
+		ActionResult result = handleUseBlock(current, world, player, position, state, plan, event);
+
+		event.commit(state, player);
+		stats.recordHandlerTime(world, player, System.nanoTime() - start);
+
+		return result;
+	}
+
+	/**
+	 * Decides whether the break of a replant candidate should be auto-replanted,
+	 * and handles it if so.
+	 *
+	 * @param snapshot    The configuration snapshot to handle the event with.
 	 * @param world       The world where the block is being broken.
 	 * @param player      The player breaking the block.
 	 * @param position    The position of the block.
 	 * @param state       The current block state.
 	 * @param blockEntity The block entity at the block's position, if any.
-	 * @param mainTool    The tool used to break the block.
-	 * @param blockId     The string identifier of the block being broken.
+	 * @param plan        The compiled replant plan for the block state.
+	 * @param event       The flight recorder event to fill in with the outcome.
+	 * @return {@code true} to let vanilla break the block, {@code false} if it was
+	 *         handled by auto-replanting.
+	 */
+	private boolean handleBlockBreakEvent(ConfigSnapshot snapshot, World world, PlayerEntity player,
+			BlockPos position, BlockState state, @Nullable BlockEntity blockEntity, ReplantPlan plan,
+			ReplantFlightEvents.Harvest event) {
+		stats.record(world, player, ReplantMetrics.Counter.EVENTS_SEEN, 1);
+
+		if (!isValidSneakRequirements(snapshot.config, player)) {
+			stats.record(world, player, ReplantMetrics.Counter.REJECTED_SNEAK, 1);
+			event.outcome = ReplantMetrics.Counter.REJECTED_SNEAK;
+
+			return true;
+		}
+
+		ItemStack mainTool = player.getMainHandStack();
+
+		if (snapshot.config.requireTool && !isValidTool(snapshot, player, mainTool)) {
+			stats.record(world, player, ReplantMetrics.Counter.REJECTED_TOOL, 1);
+			event.outcome = ReplantMetrics.Counter.REJECTED_TOOL;
+
+			return true;
+		}
+
+		if (!tryAcquireHarvest(snapshot.config, world, player, plan.mature)) {
+			event.outcome = plan.mature ? ReplantMetrics.Counter.THROTTLED_MATURE
+					: ReplantMetrics.Counter.THROTTLED_IMMATURE;
+
+			if (snapshot.config.getThrottleMode() == ThrottleMode.DEFER && world instanceof ServerWorld serverWorld) {
+				deferReplant(serverWorld, player, position, state, mainTool);
+
+				return false;
+			}
+
+			return true;
+		}
+
+		stats.record(world, player, ReplantMetrics.Counter.EVENTS_ACCEPTED, 1);
+		event.outcome = ReplantMetrics.Counter.EVENTS_ACCEPTED;
+
+		DropPool drops = getDropPool(snapshot.config, world, player);
+
+		event.drops = handleBlockBreaking(snapshot, world, player, position, state, blockEntity, mainTool, plan,
+				drops);
+
+		if (snapshot.config.enableAreaHarvest) {
+			event.drops += handleAreaHarvest(snapshot, world, player, position, mainTool, drops);
+		}
+
+		// Per-tick pools are spawned at the end of the world tick instead
+		if (drops != null && !snapshot.config.consolidateDropsPerTick) {
+			spawnDrops(drops);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Decides whether a mature crop that a player right-clicked should be
+	 * harvested, and harvests it if so.
+	 * <p>
+	 * Unlike breaking, the crop is never removed: its loot is rolled and it is set
+	 * straight back to age 0 with only {@link Block#NOTIFY_LISTENERS}, so no
+	 * neighbour updates, break particles or break sounds are caused, and there is
+	 * no moment where the block is air.
+	 * </p>
+	 *
+	 * @param snapshot The configuration snapshot to handle the event with.
+	 * @param world    The world where the block was used.
+	 * @param player   The player using the block.
+	 * @param position The position of the block.
+	 * @param state    The mature crop's block state.
+	 * @param plan     The compiled replant plan for the block state.
+	 * @param event    The flight recorder event to fill in with the outcome.
+	 * @return {@link ActionResult#SUCCESS} if the crop was harvested,
+	 *         {@link ActionResult#PASS} to let vanilla handle the interaction.
 	 */
-	private void handleCustomBlockReplacement(World world, PlayerEntity player, BlockPos position, BlockState state,
-			@Nullable BlockEntity blockEntity, ItemStack mainTool, String blockId) {
-		CustomBlockReplacementEntry entry = customReplacementMap.get(blockId);
+	private ActionResult handleUseBlock(ConfigSnapshot snapshot, World world, PlayerEntity player,
+			BlockPos position, BlockState state, ReplantPlan plan, ReplantFlightEvents.Harvest event) {
+		stats.record(world, player, ReplantMetrics.Counter.EVENTS_SEEN, 1);
+
+		if (!isValidSneakRequirements(snapshot.config, player)) {
+			stats.record(world, player, ReplantMetrics.Counter.REJECTED_SNEAK, 1);
+			event.outcome = ReplantMetrics.Counter.REJECTED_SNEAK;
+
+			return ActionResult.PASS;
+		}
+
+		ItemStack mainTool = player.getMainHandStack();
+
+		if (snapshot.config.requireTool && !isValidTool(snapshot, player, mainTool)) {
+			stats.record(world, player, ReplantMetrics.Counter.REJECTED_TOOL, 1);
+			event.outcome = ReplantMetrics.Counter.REJECTED_TOOL;
 
-		handleBlockBreaking(world, player, position, state, blockEntity, mainTool,
-				entry.replacementBlock.getDefaultState(), entry.replacementItem, entry.damageTool);
+			return ActionResult.PASS;
+		}
+
+		if (!tryAcquireHarvest(snapshot.config, world, player, true)) {
+			event.outcome = ReplantMetrics.Counter.THROTTLED_MATURE;
+
+			return ActionResult.PASS;
+		}
+
+		stats.record(world, player, ReplantMetrics.Counter.EVENTS_ACCEPTED, 1);
+		event.outcome = ReplantMetrics.Counter.EVENTS_ACCEPTED;
+
+		DropPool drops = getDropPool(snapshot.config, world, player);
+
+		event.drops = replantBlock(snapshot, world, player, position, state, world.getBlockEntity(position), mainTool,
+				plan, drops, Block.NOTIFY_LISTENERS);
+		world.emitGameEvent(player, GameEvent.BLOCK_CHANGE, position);
+
+		if (drops != null && !snapshot.config.consolidateDropsPerTick) {
+			spawnDrops(drops);
+		}
+
+		return ActionResult.SUCCESS;
 	}
 
 	/**
@@ -218,35 +496,564 @@ public class AutoReplanter implements ModInitializer {
 	 * operations.
 	 * It processes the loot drops, replants the block with the specified
 	 * replacement,
-	 * and applies tool damage if configured. This method is used by both crop
-	 * replacement and custom block replacement handlers.
+	 * and applies tool damage if configured. Crops and custom block replacements
+	 * are both described by a compiled {@link ReplantPlan}.
 	 * </p>
 	 *
-	 * @param world            The world where the block is being broken.
-	 * @param player           The player breaking the block.
-	 * @param position         The position of the block.
-	 * @param state            The current block state.
-	 * @param blockEntity      The block entity at the block's position, if any.
-	 * @param mainTool         The tool used to break the block.
-	 * @param blockToReplant   The block state to place after breaking.
-	 * @param itemToReplant    The item to decrement from drops (seed or
-	 *                         replacement).
-	 * @param shouldDamageTool Whether the tool should be damaged for this
-	 *                         operation.
-	 */
-	private void handleBlockBreaking(World world, PlayerEntity player, BlockPos position, BlockState state,
-			BlockEntity blockEntity, ItemStack mainTool, BlockState blockToReplant, Item itemToReplant,
-			boolean shouldDamageTool) {
+	 * @param snapshot    The configuration snapshot to handle the event with.
+	 * @param world       The world where the block is being broken.
+	 * @param player      The player breaking the block.
+	 * @param position    The position of the block.
+	 * @param state       The current block state.
+	 * @param blockEntity The block entity at the block's position, if any.
+	 * @param mainTool    The tool used to break the block.
+	 * @param plan        The compiled replant plan for the block state.
+	 * @param drops       The pool to collect the drops into, or {@code null} to
+	 *                    spawn them immediately.
+	 * @return The number of items dropped, {@code 0} if deferred.
+	 */
+	private int handleBlockBreaking(ConfigSnapshot snapshot, World world, PlayerEntity player, BlockPos position,
+			BlockState state, @Nullable BlockEntity blockEntity, ItemStack mainTool, ReplantPlan plan,
+			@Nullable DropPool drops) {
+		if (snapshot.config.deferReplants && world instanceof ServerWorld serverWorld) {
+			deferReplant(serverWorld, player, position, state, mainTool);
+
+			return 0;
+		}
+
+		return replantBlock(snapshot, world, player, position, state, blockEntity, mainTool, plan, drops,
+				Block.NOTIFY_ALL);
+	}
+
+	/**
+	 * Breaks a block now, but leaves its drops and replanting to the world's
+	 * deferred replant queue.
+	 *
+	 * @param world    The world where the block is being broken.
+	 * @param player   The player breaking the block.
+	 * @param position The position of the block.
+	 * @param state    The current block state.
+	 * @param mainTool The tool used to break the block.
+	 */
+	private void deferReplant(ServerWorld world, PlayerEntity player, BlockPos position, BlockState state,
+			ItemStack mainTool) {
+		world.breakBlock(position, false, player);
+		WorldReplantState.of(world).getDeferredReplants().enqueue(position, state, player, mainTool, world.getTime());
+	}
+
+	/**
+	 * Takes a harvest from the player's rate limit, if rate limiting is enabled,
+	 * and records the harvest as throttled if they are over it.
+	 *
+	 * @param config The configuration to check against.
+	 * @param world  The world where the harvest is taking place.
+	 * @param player The player harvesting.
+	 * @param mature Whether the harvested block is mature.
+	 * @return {@code true} if the harvest may go ahead.
+	 */
+	private boolean tryAcquireHarvest(AutoReplanterConfig config, World world, PlayerEntity player,
+			boolean mature) {
+		if (!config.limitHarvestRate || !(world instanceof ServerWorld serverWorld)) {
+			return true;
+		}
+
+		HarvestRateLimiter rateLimiter = WorldReplantState.of(serverWorld).getRateLimiter();
+
+		if (rateLimiter.tryAcquire(player, mature, serverWorld.getServer().getTicks(),
+				config.maxMatureHarvestsPerSecond, config.maxImmatureHarvestsPerSecond)) {
+			return true;
+		}
+
+		stats.record(world, player,
+				mature ? ReplantMetrics.Counter.THROTTLED_MATURE : ReplantMetrics.Counter.THROTTLED_IMMATURE, 1);
+
+		return false;
+	}
+
+	/**
+	 * Drops the loot for a block, replants it and damages the tool.
+	 *
+	 * @param snapshot    The configuration snapshot to handle the event with.
+	 * @param world       The world where the block is being broken.
+	 * @param player      The player breaking the block.
+	 * @param position    The position of the block.
+	 * @param state       The block state being harvested.
+	 * @param blockEntity The block entity at the block's position, if any.
+	 * @param mainTool    The tool used to break the block.
+	 * @param plan        The compiled replant plan for the block state.
+	 * @param drops       The pool to collect the drops into, or {@code null} to
+	 *                    spawn them immediately.
+	 * @param flags       The {@link Block} update flags to replant with.
+	 * @return The number of items dropped.
+	 */
+	private int replantBlock(ConfigSnapshot snapshot, World world, PlayerEntity player, BlockPos position,
+			BlockState state, @Nullable BlockEntity blockEntity, ItemStack mainTool, ReplantPlan plan,
+			@Nullable DropPool drops, int flags) {
 		// Handle looting including decrementing "seed" drop by 1 to simulate
 		// consumption of replanting
-		processLoot(world, player, position, state, blockEntity, itemToReplant, mainTool);
+		int dropped = processLoot(snapshot.config, world, player, position, state, blockEntity, plan.seedItem,
+				mainTool, drops);
 
 		// Replant the crop at age 0 (regardless of maturity)
-		world.setBlockState(position, blockToReplant, 3);
+		ReplantFlightEvents.Replant event = new ReplantFlightEvents.Replant();
+
+		event.begin();
+		world.setBlockState(position, plan.replantState, flags);
+		event.commit(state, player);
+
+		stats.record(world, player, ReplantMetrics.Counter.REPLANTS, 1);
 
 		// Damage tools based on config settings
-		if (shouldDamageTool) {
-			damageTool(player, mainTool);
+		if (plan.damageTool) {
+			damageTool(snapshot, world, player, mainTool);
+		}
+
+		return dropped;
+	}
+
+	/**
+	 * Performs the drops and replanting for a block that was broken earlier and
+	 * queued while {@link AutoReplanterConfig#deferReplants} was enabled.
+	 * <p>
+	 * If the position has been filled in the meantime, or the block is no longer a
+	 * replant candidate after a reload, the full drops are spawned without
+	 * replanting.
+	 * </p>
+	 * <p>
+	 * If the player has left or died since, or is not a connected player, the
+	 * block is harvested as by the auto-harvester instead: the drops are spawned
+	 * in the world and no tool is damaged.
+	 * </p>
+	 *
+	 * @param snapshot The configuration snapshot to handle the replant with.
+	 * @param world    The world the block was broken in.
+	 * @param position The position of the broken block.
+	 * @param state    The block state before it was broken.
+	 * @param playerId The UUID of the player who broke the block.
+	 * @param mainTool The tool the block was broken with.
+	 */
+	private void handleDeferredReplant(ConfigSnapshot snapshot, ServerWorld world, BlockPos position,
+			BlockState state, UUID playerId, ItemStack mainTool) {
+		PlayerEntity player = world.getServer().getPlayerManager().getPlayer(playerId);
+
+		if (player == null || player.isRemoved()) {
+			player = AutoHarvestScheduler.getPlayer(world);
+		}
+
+		ReplantPlan plan = snapshot.replantPlans.get(state);
+		DropPool drops = getDropPool(snapshot.config, world, player);
+
+		if (plan != null && world.isAir(position)) {
+			replantBlock(snapshot, world, player, position, state, null, mainTool, plan, drops, Block.NOTIFY_ALL);
+		} else {
+			// Nothing was replanted, so no seed is consumed
+			processLoot(snapshot.config, world, player, position, state, null, Items.AIR, mainTool, drops);
+		}
+
+		if (drops != null && !snapshot.config.consolidateDropsPerTick) {
+			spawnDrops(drops);
+		}
+	}
+
+	/**
+	 * Drains the deferred replant queue of a world within a budget.
+	 *
+	 * @param world       The world whose queue should be drained.
+	 * @param budgetNanos The time budget, in nanoseconds.
+	 */
+	private void drainDeferredReplants(ServerWorld world, long budgetNanos) {
+		DeferredReplantQueue queue = WorldReplantState.of(world).getDeferredReplants();
+
+		if (queue.size() > 0) {
+			ConfigSnapshot current = snapshot;
+
+			queue.drain(world, budgetNanos, (queuedWorld, position, state, playerId, mainTool) -> {
+				handleDeferredReplant(current, queuedWorld, position, state, playerId, mainTool);
+			});
+		}
+	}
+
+	/**
+	 * Spawns the drops consolidated in a world during this tick and applies its
+	 * batched tool damage.
+	 *
+	 * @param world The world to flush.
+	 */
+	private void flushWorldState(ServerWorld world) {
+		WorldReplantState state = WorldReplantState.of(world);
+
+		state.drainPendingDrops(this::spawnDrops);
+		state.getToolDamage().flush();
+	}
+
+	/**
+	 * Harvests mature crops across all worlds within the auto-harvest budget, if
+	 * auto-harvest is enabled.
+	 *
+	 * @param worlds The server's worlds.
+	 */
+	private void runAutoHarvest(Iterable<ServerWorld> worlds) {
+		ConfigSnapshot current = snapshot.forLoadLevel(loadShedder.getLevel());
+
+		if (!current.config.enableAutoReplanting || !current.config.enableAutoHarvest) {
+			return;
+		}
+
+		// Drops are pooled per chunk section, so they spawn near the crops they came from,
+		// and per world, as the harvest player differs per world
+		Map<ServerWorld, Long2ObjectMap<DropPool>> pools = new HashMap<>();
+
+		autoHarvester.tick(worlds, current.config.autoHarvestBudgetMicros * 1000L,
+				current.config.autoHarvestIntervalTicks, (world, player, packedPosition) -> {
+					BlockPos position = BlockPos.fromLong(packedPosition);
+					DropPool drops = null;
+
+					if (current.config.consolidateDrops) {
+						Long2ObjectMap<DropPool> worldPools = pools.computeIfAbsent(world,
+								key -> new Long2ObjectOpenHashMap<>());
+
+						drops = worldPools.computeIfAbsent(ChunkSectionPos.toLong(position),
+								key -> new DropPool(world, player));
+					}
+
+					autoHarvest(current, world, player, position, drops);
+				});
+
+		for (Long2ObjectMap<DropPool> worldPools : pools.values()) {
+			for (DropPool drops : worldPools.values()) {
+				spawnDrops(drops);
+			}
+		}
+	}
+
+	/**
+	 * Harvests and replants a crop found by the auto-harvester, if it is still a
+	 * mature replant candidate.
+	 *
+	 * @param snapshot The configuration snapshot to harvest with.
+	 * @param world    The world the crop is in.
+	 * @param player   The fake player to attribute the harvest to.
+	 * @param position The position of the crop.
+	 * @param drops    The pool to collect the drops into, or {@code null} to spawn
+	 *                 them immediately.
+	 */
+	private void autoHarvest(ConfigSnapshot snapshot, ServerWorld world, PlayerEntity player, BlockPos position,
+			@Nullable DropPool drops) {
+		BlockState state = world.getBlockState(position);
+		ReplantPlan plan = snapshot.replantPlans.get(state);
+
+		if (plan == null || !plan.mature) {
+			return;
+		}
+
+		handleBlockBreaking(snapshot, world, player, position, state, world.getBlockEntity(position), ItemStack.EMPTY,
+				plan, drops);
+	}
+
+	/**
+	 * Gets the automatic harvest scheduler.
+	 *
+	 * @return The auto-harvest scheduler.
+	 */
+	public AutoHarvestScheduler getAutoHarvester() {
+		return autoHarvester;
+	}
+
+	/**
+	 * Gets the load shedder deciding how much work to do under load.
+	 *
+	 * @return The load shedder.
+	 */
+	public LoadShedder getLoadShedder() {
+		return loadShedder;
+	}
+
+	/**
+	 * Gets the deferred replant queue of a world.
+	 *
+	 * @param world The world to get the queue for.
+	 * @return The world's queue.
+	 */
+	public DeferredReplantQueue getDeferredReplantQueue(ServerWorld world) {
+		return WorldReplantState.of(world).getDeferredReplants();
+	}
+
+	/**
+	 * Gets the cache of deterministic harvest drops.
+	 *
+	 * @return The drop cache.
+	 */
+	public ReplantDropCache getDropCache() {
+		return dropCache;
+	}
+
+	/**
+	 * Gets the harvest trace being recorded.
+	 *
+	 * @return The trace recorder, or {@code null} if no trace is being recorded.
+	 */
+	@Nullable
+	public HarvestTraceRecorder getTraceRecorder() {
+		return traceRecorder;
+	}
+
+	/**
+	 * Gets the runtime statistics of this mod instance.
+	 *
+	 * @return The runtime statistics.
+	 */
+	public ReplantStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Gets the configuration currently in use.
+	 *
+	 * @return The active configuration.
+	 */
+	public AutoReplanterConfig getConfig() {
+		return snapshot.config;
+	}
+
+	/**
+	 * Replaces the configuration in use and recompiles the replant plans and tool
+	 * validity from it. The configuration file is not modified.
+	 * <p>
+	 * The configuration must not be modified afterwards.
+	 * </p>
+	 *
+	 * @param newConfig The configuration to use.
+	 */
+	public void applyConfig(AutoReplanterConfig newConfig) {
+		publishConfig(newConfig);
+	}
+
+	/**
+	 * Reloads the configuration from the config file in the background.
+	 *
+	 * @return A future completed with the new configuration once it is in use, or
+	 *         exceptionally if the file is invalid, in which case the current
+	 *         configuration is kept.
+	 */
+	public CompletableFuture<AutoReplanterConfig> reloadConfig() {
+		return reloader.reload();
+	}
+
+	/**
+	 * Resolves the Auto Replanter enchantment added by the companion data pack.
+	 *
+	 * @param registries The loaded dynamic registries.
+	 * @return The enchantment, or {@code null} if the data pack is not enabled.
+	 */
+	@Nullable
+	public static RegistryEntry<Enchantment> findAutoReplanterEnchantment(DynamicRegistryManager registries) {
+		return registries.getOptional(RegistryKeys.ENCHANTMENT)
+				.flatMap(registry -> registry.getEntry(AUTO_REPLANTER_ENCHANTMENT))
+				.orElse(null);
+	}
+
+	/**
+	 * Compiles a new snapshot from a configuration, keeping the resolved
+	 * enchantment, swaps it in and sends it to the connected players. While the
+	 * server is running, the trace recorder and config file watcher are also
+	 * started or stopped to match it.
+	 *
+	 * @param newConfig The configuration to compile.
+	 */
+	private void publishConfig(AutoReplanterConfig newConfig) {
+		synchronized (snapshotLock) {
+			ConfigSnapshot current = snapshot;
+
+			// Nothing can be compiled before tags are loaded; that load will compile it
+			setSnapshot(current.replantPlans == ReplantPlanTable.EMPTY
+					? ConfigSnapshot.uncompiled(newConfig)
+					: ConfigSnapshot.compile(newConfig, current.autoReplanterEnchantment));
+		}
+
+		MinecraftServer currentServer = server;
+
+		if (currentServer != null) {
+			currentServer.execute(() -> {
+				for (ServerPlayerEntity player : currentServer.getPlayerManager().getPlayerList()) {
+					sendReplantRules(player, newConfig);
+				}
+
+				updateTraceRecorder(newConfig.recordHarvestTrace);
+
+				// The reloaded config may have switched watching on or off
+				if (newConfig.watchConfigFile) {
+					reloader.startWatching();
+				} else {
+					reloader.stopWatching();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Starts or stops recording a harvest trace. Only called from the server
+	 * thread.
+	 *
+	 * @param record Whether a trace should be recorded.
+	 */
+	private void updateTraceRecorder(boolean record) {
+		HarvestTraceRecorder recorder = traceRecorder;
+
+		if (record && recorder == null) {
+			try {
+				traceRecorder = HarvestTraceRecorder.start(TRACE_DIRECTORY);
+			} catch (IOException e) {
+				System.err.println("Failed to start Auto Replanter harvest trace: " + e.getMessage());
+			}
+		} else if (!record && recorder != null) {
+			traceRecorder = null;
+			recorder.close();
+		}
+	}
+
+	/**
+	 * Records a block break or right-click harvest to the harvest trace, if one
+	 * is being recorded. Only called for replant candidates the mod is about to
+	 * handle, so breaks of other blocks and breaks left to vanilla by load
+	 * shedding are not recorded.
+	 *
+	 * @param world     The world where the block is being harvested.
+	 * @param player    The player harvesting the block.
+	 * @param state     The current block state.
+	 * @param position  The position of the block.
+	 * @param kindFlags {@link HarvestTrace#RIGHT_CLICK} for a right-click harvest,
+	 *                  or {@code 0} for a break.
+	 */
+	private void recordTrace(World world, PlayerEntity player, BlockState state, BlockPos position,
+			int kindFlags) {
+		HarvestTraceRecorder recorder = traceRecorder;
+
+		if (recorder != null && world instanceof ServerWorld serverWorld) {
+			ItemStack tool = player.getMainHandStack();
+
+			recorder.record(state, tool.getItem(), HarvestTraceRecorder.getFlags(snapshot, player, tool) | kindFlags,
+					position, serverWorld.getServer().getTicks());
+		}
+	}
+
+	/**
+	 * Sends the replant rules to a player, if their client can predict replants.
+	 *
+	 * @param player The player to send the rules to.
+	 * @param config The configuration in use.
+	 */
+	private static void sendReplantRules(ServerPlayerEntity player, AutoReplanterConfig config) {
+		if (ServerPlayNetworking.canSend(player, ReplantRulesPayload.ID)) {
+			ServerPlayNetworking.send(player, new ReplantRulesPayload(config));
+		}
+	}
+
+	/**
+	 * Publishes a new snapshot. Must be called while holding
+	 * {@link #snapshotLock}.
+	 *
+	 * @param newSnapshot The snapshot to publish.
+	 */
+	private void setSnapshot(ConfigSnapshot newSnapshot) {
+		snapshot = newSnapshot;
+		MatureCropIndex.setReplantPlans(newSnapshot.replantPlans);
+	}
+
+	/**
+	 * Harvests and replants the mature crops around a broken crop.
+	 * <p>
+	 * All changes are made within the same tick, and the server collects the block
+	 * changes of each chunk section until the end of the tick, so each affected
+	 * section reaches clients as a single multi-block update whatever the order
+	 * the positions are visited in. Harvesting stops early if the tool breaks or
+	 * the player reaches their harvest rate limit.
+	 * </p>
+	 *
+	 * @param snapshot The configuration snapshot to handle the event with.
+	 * @param world    The world where the crop was broken.
+	 * @param player   The player harvesting the area.
+	 * @param origin   The position of the crop broken by the player.
+	 * @param mainTool The tool used to break the crop.
+	 * @param drops    The pool to collect the drops into, or {@code null} to spawn
+	 *                 them immediately.
+	 * @return The number of items dropped.
+	 */
+	private int handleAreaHarvest(ConfigSnapshot snapshot, World world, PlayerEntity player, BlockPos origin,
+			ItemStack mainTool, @Nullable DropPool drops) {
+		AutoReplanterConfig config = snapshot.config;
+		int enchantmentBonus = snapshot.getAutoReplanterLevel(mainTool) * config.areaHarvestRadiusPerEnchantmentLevel;
+		int radius = Math.min(config.maxAreaHarvestRadius, config.areaHarvestRadius + enchantmentBonus);
+
+		if (radius <= 0) {
+			return 0;
+		}
+
+		List<BlockPos> positions = config.getAreaHarvestShape().getPositions(origin, radius,
+				player.getHorizontalFacing());
+		int dropped = 0;
+
+		for (BlockPos position : positions) {
+			if (config.requireTool && !isValidTool(snapshot, player, mainTool)) {
+				break;
+			}
+
+			BlockState state = world.getBlockState(position);
+			ReplantPlan plan = snapshot.replantPlans.get(state);
+
+			if (plan == null || !plan.mature || !world.canPlayerModifyAt(player, position)) {
+				continue;
+			}
+
+			// The rest of the area is left alone once the player is over the limit
+			if (!tryAcquireHarvest(config, world, player, true)) {
+				break;
+			}
+
+			dropped += handleBlockBreaking(snapshot, world, player, position, state, world.getBlockEntity(position),
+					mainTool, plan, drops);
+		}
+
+		return dropped;
+	}
+
+	/**
+	 * Gets the pool that drops from a harvest operation should be collected into.
+	 * <p>
+	 * When drops are consolidated per tick, each player has one pool per world
+	 * that is shared by all of their harvests there until the end of the world
+	 * tick. Otherwise a new pool is used for each harvest operation.
+	 * </p>
+	 *
+	 * @param config The configuration to handle the harvest with.
+	 * @param world  The world where the harvest is taking place.
+	 * @param player The player harvesting.
+	 * @return The pool to collect drops into, or {@code null} if drops should not
+	 *         be consolidated.
+	 */
+	@Nullable
+	private DropPool getDropPool(AutoReplanterConfig config, World world, PlayerEntity player) {
+		if (!config.consolidateDrops) {
+			return null;
+		}
+
+		if (!config.consolidateDropsPerTick) {
+			return new DropPool(world, player);
+		}
+
+		return world instanceof ServerWorld serverWorld ? WorldReplantState.of(serverWorld).getPendingDrops(player)
+				: null;
+	}
+
+	/**
+	 * Spawns the drops in a pool and records how many item entities were created.
+	 *
+	 * @param drops The pool to spawn.
+	 */
+	private void spawnDrops(DropPool drops) {
+		int spawned = drops.spawn();
+
+		if (spawned > 0) {
+			stats.record(drops.getWorld(), drops.getPlayer(), ReplantMetrics.Counter.DROPS_SPAWNED, spawned);
 		}
 	}
 
@@ -259,23 +1066,13 @@ public class AutoReplanter implements ModInitializer {
 	 * and the mod's configured sneak mode (ALWAYS, ONLY_SNEAKING, ONLY_STANDING).
 	 * </p>
 	 *
+	 * @param config The configuration to check against.
 	 * @param player The player entity to check.
 	 * @return {@code true} if the player's sneak state matches the configuration,
 	 *         {@code false} otherwise.
 	 */
-	private boolean isValidSneakRequirements(PlayerEntity player) {
-		boolean playerSneaking = player.isSneaking();
-
-		switch (config.getSneakMode()) {
-			case ONLY_SNEAKING:
-				return playerSneaking;
-			case ONLY_STANDING:
-				return !playerSneaking;
-			case ALWAYS:
-			default:
-				// No sneak restriction
-				return true;
-		}
+	private boolean isValidSneakRequirements(AutoReplanterConfig config, PlayerEntity player) {
+		return config.getSneakMode().permits(player.isSneaking());
 	}
 
 	/**
@@ -285,9 +1082,13 @@ public class AutoReplanter implements ModInitializer {
 	 * This method collects the dropped item stacks for the given block state and
 	 * decrements one item from the stack matching {@code itemToDecrement}
 	 * (typically the seed or replacement item) to simulate using it for replanting.
-	 * The modified drops are then spawned in the world.
+	 * Deterministic drops are taken from the {@link ReplantDropCache} if enabled.
+	 * The modified drops are then inserted into the player's inventory if
+	 * configured, and anything left over is spawned in the world or collected
+	 * into the given pool to be spawned later.
 	 * </p>
 	 *
+	 * @param config          The configuration to handle the loot with.
 	 * @param world           The world where the block is being broken.
 	 * @param player          The player breaking the block.
 	 * @param pos             The position of the block.
@@ -296,30 +1097,55 @@ public class AutoReplanter implements ModInitializer {
 	 * @param itemToDecrement The item to decrement from the drops (seed or
 	 *                        replacement).
 	 * @param mainTool        The tool used to break the block.
+	 * @param drops           The pool to collect the drops into, or {@code null}
+	 *                        to spawn them immediately.
+	 * @return The number of items dropped, including any delivered to the
+	 *         player's inventory.
 	 */
-	private void processLoot(World world, PlayerEntity player, BlockPos pos, BlockState state,
-			@Nullable BlockEntity blockEntity, Item itemToDecrement, ItemStack mainTool) {
-		// Get the dropped stacks manually
-		List<ItemStack> droppedStacks = Block.getDroppedStacks(state, (ServerWorld) world, pos, blockEntity,
-				player,
-				mainTool);
+	private int processLoot(AutoReplanterConfig config, World world, PlayerEntity player, BlockPos pos,
+			BlockState state, @Nullable BlockEntity blockEntity, Item itemToDecrement, ItemStack mainTool,
+			@Nullable DropPool drops) {
+		ReplantFlightEvents.LootEval event = new ReplantFlightEvents.LootEval();
+
+		event.begin();
+
+		// Get the dropped stacks manually, minus the seed/replacement block/item
+		List<ItemStack> droppedStacks = config.cacheDeterministicDrops
+				? dropCache.getDrops(state, (ServerWorld) world, pos, blockEntity, player, mainTool,
+						itemToDecrement)
+				: ReplantDropCache.evaluateDrops(state, (ServerWorld) world, pos, blockEntity, player, mainTool,
+						itemToDecrement);
+		int dropped = 0;
 
-		// Process each dropped stack
 		for (ItemStack stack : droppedStacks) {
+			dropped += stack.getCount();
+		}
 
-			if (stack.getItem() == itemToDecrement) {
-				// Decrement by 1 if it's the seed/replacement block/item
-				stack.decrement(1);
+		// Process each dropped stack
+		for (ItemStack stack : droppedStacks) {
+			// Deliver straight to the player's inventory, leaving only the overflow.
+			// Changed slots are synced once per tick by the player's screen handler.
+			if (config.deliverDropsToInventory && !stack.isEmpty()
+					&& !AutoHarvestScheduler.isAutoHarvestPlayer(player)) {
+				player.getInventory().insertStack(stack);
 			}
 
-			// Spawn the modified stack if it's not empty
-			if (!stack.isEmpty()) {
-				ItemEntity itemEntity = new ItemEntity(world, pos.getX() + 0.5, pos.getY() + 0.5,
-						pos.getZ() + 0.5, stack);
+			// Spawn or pool the modified stack if it's not empty
+			if (stack.isEmpty()) {
+				continue;
+			}
 
-				world.spawnEntity(itemEntity);
+			if (drops != null) {
+				drops.add(pos, stack);
+			} else {
+				DropPool.spawnStack(world, pos, stack);
+				stats.record(world, player, ReplantMetrics.Counter.DROPS_SPAWNED, 1);
 			}
 		}
+
+		event.commit(state, player, dropped);
+
+		return dropped;
 	}
 
 	/**
@@ -330,114 +1156,60 @@ public class AutoReplanter implements ModInitializer {
 	 * configuration setting for only damaging on mature crops.
 	 * </p>
 	 *
+	 * @param snapshot The configuration snapshot to handle the event with.
+	 * @param world    The world where the block was harvested, which may not be
+	 *                 the player's current world for a deferred replant.
 	 * @param player   The player using the tool.
 	 * @param mainTool The tool to potentially damage.
 	 */
-	private void damageTool(PlayerEntity player, ItemStack mainTool) {
+	private void damageTool(ConfigSnapshot snapshot, World world, PlayerEntity player, ItemStack mainTool) {
+		AutoReplanterConfig config = snapshot.config;
+
+		// Also stands in for players who have gone since a deferred break, whose tools are gone too
+		if (AutoHarvestScheduler.isAutoHarvestPlayer(player)) {
+			return;
+		}
+
 		if (config.damageTools && config.requireTool && mainTool.isDamageable()
-				&& isValidTool(mainTool)) {
+				&& snapshot.isValidTool(mainTool)) {
 			// Only damage if we should always damage, or if we only damage on mature crops
 			// and this is mature
 			if (!config.onlyDamageOnMatureCrop) {
-				mainTool.damage(1, player, EquipmentSlot.MAINHAND);
-			}
-		}
-	}
+				ReplantFlightEvents.ToolDamage event = new ReplantFlightEvents.ToolDamage();
+				Item tool = mainTool.getItem();
 
-	/**
-	 * Determines if a crop is fully mature and ready for harvest.
-	 *
-	 * @param cropBlock The crop block to check.
-	 * @param state     The current block state of the crop.
-	 * @return {@code true} if the crop is at maximum age, {@code false} otherwise.
-	 */
-	private boolean isMatureCrop(CropBlock cropBlock, net.minecraft.block.BlockState state) {
-		return cropBlock.getAge(state) == cropBlock.getMaxAge();
-	}
+				event.begin();
 
-	/**
-	 * Checks if the given tool is valid for auto-replanting based on configured
-	 * tool validation settings
-	 * or if it has the Auto Replanter enchantment.
-	 *
-	 * @param tool The ItemStack representing the tool to check.
-	 * @return {@code true} if the tool matches any of the configured validation
-	 *         criteria or has the Auto Replanter enchantment,
-	 *         {@code false} otherwise.
-	 */
-	private boolean isValidTool(ItemStack tool) {
-		if (tool.isEmpty()) {
-			return false;
-		}
+				if (config.batchToolDamage && world instanceof ServerWorld serverWorld) {
+					WorldReplantState.of(serverWorld).getToolDamage().add(player, mainTool, 1);
+				} else {
+					mainTool.damage(1, player, EquipmentSlot.MAINHAND);
+				}
 
-		// Check traditional valid tool criteria
-		boolean validByTag = config.useValidToolTags && validToolTags.stream().anyMatch(tool::isIn);
-
-		if (validByTag) {
-			return true;
-		}
-
-		boolean validByItem = config.useValidTools && validToolIds.contains(
-				net.minecraft.registry.Registries.ITEM.getId(tool.getItem()).toString());
-
-		if (validByItem) {
-			return true;
-		}
-
-		// Check if tool has Auto Replanter enchantment
-		boolean hasEnchantment = hasAutoReplanterEnchantment(tool);
-
-		if (hasEnchantment) {
-			return true;
+				event.commit(tool, player);
+				stats.record(world, player, ReplantMetrics.Counter.TOOL_DAMAGE, 1);
+			}
 		}
-
-		return false;
 	}
 
 	/**
-	 * Checks if the given tool has the Auto Replanter enchantment.
+	 * Checks if a player's tool is valid for auto-replanting, recording the check
+	 * as a flight recorder event.
 	 *
-	 * @param tool The ItemStack to check for the enchantment.
-	 * @return {@code true} if the tool has the Auto Replanter enchantment,
-	 *         {@code false} otherwise.
+	 * @param snapshot The configuration snapshot to check against.
+	 * @param player   The player holding the tool.
+	 * @param tool     The tool to check.
+	 * @return {@code true} if the tool is valid.
 	 */
-	private boolean hasAutoReplanterEnchantment(ItemStack tool) {
-		if (tool.isEmpty()) {
-			return false;
-		}
+	private static boolean isValidTool(ConfigSnapshot snapshot, PlayerEntity player, ItemStack tool) {
+		ReplantFlightEvents.ToolCheck event = new ReplantFlightEvents.ToolCheck();
 
-		Identifier AUTO_REPLANT_ENCHANTMENT_ID = Identifier.of("autoreplanter", "auto_replanter");
+		event.begin();
 
-		// Check enchantments directly by looking through the enchantment map
-		return tool.getEnchantments().getEnchantments().stream()
-				.anyMatch(enchantment -> {
-					return enchantment.matchesId(AUTO_REPLANT_ENCHANTMENT_ID);
-				});
-	}
+		boolean valid = snapshot.isValidTool(tool);
 
-	/**
-	 * Parses a string representation of an item tag into a TagKey object.
-	 * <p>
-	 * Supports both simple tags ("namespace:path") and complex tags with categories
-	 * ("namespace:category/subcategory").
-	 * </p>
-	 *
-	 * @param tagString The string representation of the tag (e.g., "minecraft:hoes"
-	 *                  or "farmersdelight:tools/knives").
-	 * @return A TagKey object representing the parsed tag.
-	 * @throws IllegalArgumentException if the tag string format is invalid.
-	 */
-	private TagKey<Item> parseTagString(String tagString) {
-		String[] parts = tagString.split(":");
-		if (parts.length == 2) {
-			return TagKey.of(RegistryKeys.ITEM, Identifier.of(parts[0], parts[1]));
-		} else {
-			// Handle tags with more colons (e.g., "namespace:category/subcategory")
-			int firstColon = tagString.indexOf(':');
-			String namespace = tagString.substring(0, firstColon);
-			String path = tagString.substring(firstColon + 1);
+		event.commit(tool, player, valid);
 
-			return TagKey.of(RegistryKeys.ITEM, Identifier.of(namespace, path));
-		}
+		return valid;
 	}
 }
@@ -0,0 +1,176 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import com.mojang.brigadier.CommandDispatcher;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+
+/**
+ * The {@code /autoreplanter} server command.
+ * <p>
+ * Subcommands:
+ * <ul>
+ * <li>{@code /autoreplanter stats} - Shows the runtime statistics for the
+ * server, each world and each player</li>
+ * <li>{@code /autoreplanter stats reset} - Resets the runtime statistics</li>
+ * <li>{@code /autoreplanter reload} - Reloads the config file</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Requires permission level 2 (operators).
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see ReplantStats
+ * @see ConfigReloader
+ */
+public final class AutoReplanterCommand {
+
+	private AutoReplanterCommand() {
+	}
+
+	/**
+	 * Registers the command.
+	 *
+	 * @param dispatcher The server command dispatcher.
+	 * @param mod        The mod instance whose state the command reports.
+	 */
+	public static void register(CommandDispatcher<ServerCommandSource> dispatcher, AutoReplanter mod) {
+		dispatcher.register(CommandManager.literal("autoreplanter")
+				.requires(source -> source.hasPermissionLevel(2))
+				.then(CommandManager.literal("stats")
+						.executes(context -> showStats(context.getSource(), mod))
+						.then(CommandManager.literal("reset")
+								.executes(context -> resetStats(context.getSource(), mod))))
+				.then(CommandManager.literal("reload")
+						.executes(context -> reloadConfig(context.getSource(), mod))));
+	}
+
+	private static int showStats(ServerCommandSource source, AutoReplanter mod) {
+		ReplantStats stats = mod.getStats();
+		long ticks = stats.getTicks();
+
+		send(source, String.format(Locale.ROOT, "Auto Replanter stats over %.1fs (%d ticks)",
+				stats.getElapsedNanos() / 1_000_000_000.0, ticks));
+		sendMetrics(source, "server", stats.getGlobal(), ticks);
+
+		for (ServerWorld world : source.getServer().getWorlds()) {
+			ReplantMetrics metrics = stats.getWorlds().get(world.getRegistryKey());
+			DeferredReplantQueue queue = mod.getDeferredReplantQueue(world);
+			String worldName = world.getRegistryKey().getValue().toString();
+
+			if (metrics != null) {
+				sendMetrics(source, worldName, metrics, ticks);
+			}
+
+			MatureCropIndex index = MatureCropIndex.of(world);
+
+			if (index.size() > 0) {
+				send(source, String.format(Locale.ROOT, "  [%s] mature crop index: crops=%d sections=%d", worldName,
+						index.size(), index.getSectionCount()));
+			}
+
+			int pendingSections = mod.getAutoHarvester().getPendingSections(world);
+
+			if (pendingSections > 0) {
+				send(source, String.format(Locale.ROOT, "  [%s] auto harvest: pending_sections=%d", worldName,
+						pendingSections));
+			}
+
+			if (queue.size() > 0 || queue.getDrainedLastTick() > 0) {
+				send(source, String.format(Locale.ROOT, "  [%s] deferred queue: depth=%d oldest=%dt drained_last_tick=%d",
+						worldName, queue.size(), queue.getOldestAge(world.getTime()), queue.getDrainedLastTick()));
+			}
+		}
+
+		ReplantDropCache dropCache = mod.getDropCache();
+		LoadShedder loadShedder = mod.getLoadShedder();
+
+		send(source, String.format(Locale.ROOT, "  load: level=%s mspt=%.1f changed=%dt ago", loadShedder.getLevel(),
+				loadShedder.getMspt(), source.getServer().getTicks() - loadShedder.getLastChangeTick()));
+
+		send(source, String.format(Locale.ROOT, "  drop cache: entries=%d hits=%d misses=%d", dropCache.size(),
+				dropCache.getHits(), dropCache.getMisses()));
+
+		HarvestTraceRecorder traceRecorder = mod.getTraceRecorder();
+
+		if (traceRecorder != null) {
+			send(source, String.format(Locale.ROOT, "  harvest trace: file=%s recorded=%d dropped=%d",
+					traceRecorder.getPath().getFileName(), traceRecorder.getRecorded(), traceRecorder.getDropped()));
+		}
+
+		for (Map.Entry<UUID, ReplantMetrics> entry : stats.getPlayers().entrySet()) {
+			sendMetrics(source, stats.getPlayerName(entry.getKey()), entry.getValue(), ticks);
+		}
+
+		return 1;
+	}
+
+	private static int resetStats(ServerCommandSource source, AutoReplanter mod) {
+		mod.getStats().reset();
+		source.sendFeedback(() -> Text.literal("Auto Replanter stats reset"), true);
+
+		return 1;
+	}
+
+	/**
+	 * Starts a background reload of the config file, reporting the result on the
+	 * server thread once it completes.
+	 *
+	 * @param source The command source to report to.
+	 * @param mod    The mod instance to reload.
+	 * @return The command result.
+	 */
+	private static int reloadConfig(ServerCommandSource source, AutoReplanter mod) {
+		MinecraftServer server = source.getServer();
+
+		mod.reloadConfig().whenComplete((config, error) -> server.execute(() -> {
+			if (error != null) {
+				source.sendError(Text.literal("Failed to reload Auto Replanter config: "
+						+ ConfigReloader.describe(error)));
+			} else {
+				source.sendFeedback(() -> Text.literal("Auto Replanter config reloaded"), true);
+			}
+		}));
+
+		return 1;
+	}
+
+	/**
+	 * Sends the counters and handler latency of one scope.
+	 *
+	 * @param source  The command source to send the output to.
+	 * @param scope   The name of the server, world or player.
+	 * @param metrics The metrics to send.
+	 * @param ticks   The number of ticks the metrics cover.
+	 */
+	private static void sendMetrics(ServerCommandSource source, String scope, ReplantMetrics metrics, long ticks) {
+		StringBuilder counters = new StringBuilder("[").append(scope).append(']');
+
+		for (ReplantMetrics.Counter counter : ReplantMetrics.Counter.values()) {
+			counters.append(' ').append(counter.getDisplayName()).append('=').append(metrics.get(counter));
+		}
+
+		LatencyHistogram latency = metrics.getHandlerLatency();
+		long count = latency.getCount();
+		long totalNanos = latency.getTotalNanos();
+
+		send(source, counters.toString());
+		send(source, String.format(Locale.ROOT, "  handler: avg=%.2fus per_tick=%.2fus %s",
+				count == 0 ? 0.0 : totalNanos / (double) count / 1_000.0,
+				ticks == 0 ? 0.0 : totalNanos / (double) ticks / 1_000.0,
+				latency.formatBuckets()));
+	}
+
+	private static void send(ServerCommandSource source, String message) {
+		source.sendFeedback(() -> Text.literal(message), false);
+	}
+}
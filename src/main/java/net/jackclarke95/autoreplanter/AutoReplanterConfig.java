@@ -135,6 +135,19 @@ public class AutoReplanterConfig {
          */
         public boolean onlyDamageOnMatureCrop = true;
 
+        /**
+         * Whether tool damage should be applied once per player at the end of each
+         * tick instead of once per harvested block.
+         * <p>
+         * The total damage and the chance of Unbreaking preventing it are the same.
+         * Tools that would break are still damaged immediately.
+         * </p>
+         * 
+         * @default true
+         * @see #damageTools
+         */
+        public boolean batchToolDamage = true;
+
         /**
          * Controls when auto-replanting should occur based on the player's sneak state.
          * <p>
@@ -162,8 +175,12 @@ public class AutoReplanterConfig {
 
         /**
          * List of custom block replacement rules.
-         * Each entry is a mapping from a single target block ID to a replacement block
-         * ID, and whether breaking this block should cost tool durability.
+         * Each entry is a mapping from a target to a replacement block ID, and
+         * whether breaking this block should cost tool durability. The target may be
+         * a block ID, a block tag ({@code #c:crops}) or every block in a namespace
+         * ({@code farmersdelight:*}), optionally followed by block state properties
+         * ({@code minecraft:sweet_berry_bush[age=max]}). If several rules match a
+         * block state, the last one is used.
          * <p>
          * Example:
          * </p>
@@ -188,6 +205,357 @@ public class AutoReplanterConfig {
          */
         public boolean useCustomBlockReplacements = true;
 
+        /**
+         * Whether breaking a crop should also harvest and replant the mature crops
+         * around it.
+         * <p>
+         * All blocks in the area are harvested in a single operation, so the
+         * resulting block changes reach clients as one multi-block update per chunk
+         * section rather than one packet per crop. Only fully grown crops and custom
+         * replacement targets around the broken block are harvested; the broken
+         * block itself follows the normal rules.
+         * </p>
+         * 
+         * @default false
+         * @see #areaHarvestShape
+         * @see #areaHarvestRadius
+         */
+        public boolean enableAreaHarvest = false;
+
+        /**
+         * The shape of the area harvested around a broken crop.
+         * <p>
+         * Available options:
+         * <ul>
+         * <li>{@link AreaHarvestShape#SQUARE} - A square centred on the broken crop
+         * (default)</li>
+         * <li>{@link AreaHarvestShape#ROW} - A row along the direction the player is
+         * facing</li>
+         * </ul>
+         * </p>
+         * 
+         * @default SQUARE
+         * @see #enableAreaHarvest
+         */
+        public AreaHarvestShape areaHarvestShape = AreaHarvestShape.SQUARE;
+
+        /**
+         * Gets the area harvest shape, ensuring it's never null.
+         * 
+         * @return the configured area harvest shape, or SQUARE if null
+         */
+        public AreaHarvestShape getAreaHarvestShape() {
+                return areaHarvestShape != null ? areaHarvestShape : AreaHarvestShape.SQUARE;
+        }
+
+        /**
+         * The base number of blocks the area harvest extends from the broken crop.
+         * 
+         * @default 1
+         * @see #enableAreaHarvest
+         * @see #areaHarvestRadiusPerEnchantmentLevel
+         */
+        public int areaHarvestRadius = 1;
+
+        /**
+         * Additional radius granted per level of the Auto Replanter enchantment on
+         * the tool used.
+         * 
+         * @default 0
+         * @see #areaHarvestRadius
+         */
+        public int areaHarvestRadiusPerEnchantmentLevel = 0;
+
+        /**
+         * Upper limit on the area harvest radius after enchantment scaling.
+         * 
+         * @default 4
+         * @see #areaHarvestRadius
+         */
+        public int maxAreaHarvestRadius = 4;
+
+        /**
+         * Whether right-clicking a mature crop should harvest it.
+         * <p>
+         * When set to {@code true}, right-clicking a fully grown crop drops its loot
+         * and resets it to age 0 in place, without breaking it. The same sneak and
+         * tool requirements apply as for breaking. Only applies to crops, not custom
+         * block replacements.
+         * </p>
+         * 
+         * @default false
+         */
+        public boolean enableRightClickHarvest = false;
+
+        /**
+         * Whether drops from a harvest should be merged into as few item entities as
+         * possible.
+         * <p>
+         * When set to {@code true}, matching drops from every crop harvested in one
+         * operation (including an area harvest) are merged into full stacks and
+         * spawned together at the broken crop, instead of one item entity per stack
+         * per crop.
+         * </p>
+         * 
+         * @default false
+         * @see #consolidateDropsPerTick
+         */
+        public boolean consolidateDrops = false;
+
+        /**
+         * Whether consolidated drops should be pooled per player for a whole server
+         * tick rather than per harvest operation.
+         * <p>
+         * This setting has no effect if {@link #consolidateDrops} is {@code false}.
+         * </p>
+         * 
+         * @default false
+         * @see #consolidateDrops
+         */
+        public boolean consolidateDropsPerTick = false;
+
+        /**
+         * Whether harvested drops should be inserted directly into the harvesting
+         * player's inventory.
+         * <p>
+         * When set to {@code true}, drops are added to the player's inventory
+         * without spawning item entities. Only drops that do not fit are spawned in
+         * the world, following the {@link #consolidateDrops} setting.
+         * </p>
+         * 
+         * @default false
+         * @see #consolidateDrops
+         */
+        public boolean deliverDropsToInventory = false;
+
+        /**
+         * Whether drops and replanting should be deferred to the end of the tick.
+         * <p>
+         * When set to {@code true}, harvested crops are broken immediately, but
+         * their drops, replanting and tool damage are queued per world and
+         * processed at the end of the world tick within
+         * {@link #deferredReplantBudgetMicros}. Under heavy load the work is spread
+         * across several ticks instead of being done all at once.
+         * </p>
+         * 
+         * @default false
+         * @see #deferredReplantBudgetMicros
+         */
+        public boolean deferReplants = false;
+
+        /**
+         * Maximum time, in microseconds, spent processing deferred replants per world
+         * per tick. At least one deferred replant is always processed per tick.
+         * 
+         * @default 1000
+         * @see #deferReplants
+         */
+        public long deferredReplantBudgetMicros = 1000;
+
+        /**
+         * Whether mature crops in loaded chunks should be harvested and replanted
+         * automatically, without a player breaking them.
+         * <p>
+         * Only crops in chunks close enough to a player to grow are harvested, and
+         * custom replacement targets only if their rule requires the highest age,
+         * so decorative blocks matched by a rule are left alone. The work is spread
+         * across ticks within {@link #autoHarvestBudgetMicros}, and drops are
+         * spawned where the crops were, or pooled per chunk section when
+         * {@link #consolidateDrops} is enabled. Tools are not used or damaged.
+         * </p>
+         * 
+         * @default false
+         * @see #autoHarvestIntervalTicks
+         * @see #autoHarvestBudgetMicros
+         */
+        public boolean enableAutoHarvest = false;
+
+        /**
+         * Minimum number of ticks between two automatic harvesting passes over the
+         * same world.
+         * 
+         * @default 100
+         * @see #enableAutoHarvest
+         */
+        public int autoHarvestIntervalTicks = 100;
+
+        /**
+         * Maximum time, in microseconds, spent on automatic harvesting per tick,
+         * shared by all worlds. At least one crop is harvested per tick while a pass
+         * is in progress.
+         * 
+         * @default 500
+         * @see #enableAutoHarvest
+         */
+        public long autoHarvestBudgetMicros = 500;
+
+        /**
+         * Whether drops that are always the same should be cached instead of
+         * evaluating the loot table for every harvest.
+         * <p>
+         * Applies to harvests whose loot table used no randomness for the harvested
+         * block state, tool and enchantments, such as immature crops. The cache is
+         * cleared whenever data packs are reloaded.
+         * </p>
+         * 
+         * @default true
+         */
+        public boolean cacheDeterministicDrops = true;
+
+        /**
+         * Whether the rate at which each player can harvest should be limited.
+         * <p>
+         * Protects the server from players harvesting very quickly, for example
+         * with an autoclicker and a fast tool. Each player can harvest up to the
+         * configured number of blocks per second, with bursts of up to one second's
+         * worth. Harvests over the limit are handled according to
+         * {@link #throttleMode}. Automatic harvesting is never limited.
+         * </p>
+         * 
+         * @default false
+         * @see #maxMatureHarvestsPerSecond
+         * @see #maxImmatureHarvestsPerSecond
+         */
+        public boolean limitHarvestRate = false;
+
+        /**
+         * The maximum number of mature crops a player can harvest per second when
+         * {@link #limitHarvestRate} is enabled, including area harvests.
+         * 
+         * @default 40
+         */
+        public int maxMatureHarvestsPerSecond = 40;
+
+        /**
+         * The maximum number of immature crops a player can harvest per second when
+         * {@link #limitHarvestRate} is enabled.
+         * 
+         * @default 10
+         */
+        public int maxImmatureHarvestsPerSecond = 10;
+
+        /**
+         * What happens to harvests over the rate limit.
+         * <p>
+         * Available options:
+         * <ul>
+         * <li>{@link ThrottleMode#VANILLA} - The block breaks normally without
+         * replanting (default)</li>
+         * <li>{@link ThrottleMode#DEFER} - The replant is queued and processed
+         * later</li>
+         * </ul>
+         * </p>
+         * 
+         * @default VANILLA
+         * @see ThrottleMode
+         */
+        public ThrottleMode throttleMode = ThrottleMode.VANILLA;
+
+        /**
+         * Gets the throttle mode, ensuring it's never null.
+         * 
+         * @return the configured throttle mode, or VANILLA if null
+         */
+        public ThrottleMode getThrottleMode() {
+                return throttleMode != null ? throttleMode : ThrottleMode.VANILLA;
+        }
+
+        /**
+         * Whether the mod should do less work while the server is struggling to
+         * keep up.
+         * <p>
+         * The server's average tick time over the last 100 ticks is checked every
+         * tick. Above {@link #reducedLoadMspt}, drop consolidation, area harvest and
+         * automatic harvest are paused; above {@link #deferredLoadMspt}, replants are
+         * also deferred; above {@link #vanillaLoadMspt}, auto-replanting is switched
+         * off. Each level is left once the tick time is {@link #loadSheddingHysteresisMspt}
+         * below its threshold.
+         * </p>
+         * 
+         * @default false
+         * @see LoadLevel
+         */
+        public boolean enableLoadShedding = false;
+
+        /**
+         * The average milliseconds per tick above which drop consolidation, area
+         * harvest and automatic harvest are paused.
+         * 
+         * @default 40
+         */
+        public double reducedLoadMspt = 40;
+
+        /**
+         * The average milliseconds per tick above which replants are also deferred.
+         * 
+         * @default 45
+         */
+        public double deferredLoadMspt = 45;
+
+        /**
+         * The average milliseconds per tick above which auto-replanting is switched
+         * off until the server recovers.
+         * 
+         * @default 50
+         */
+        public double vanillaLoadMspt = 50;
+
+        /**
+         * How far in milliseconds per tick the average tick time must fall below a
+         * level's threshold before that level is left.
+         * 
+         * @default 5
+         */
+        public double loadSheddingHysteresisMspt = 5;
+
+        /**
+         * Whether the breaks and right-click harvests of replant candidates handled
+         * by the mod should be recorded to a harvest trace in the
+         * {@code autoreplanter-traces} directory.
+         * <p>
+         * Breaks of other blocks, and breaks left to vanilla while auto-replanting
+         * is disabled or shed under load, are not recorded. Traces are compact
+         * binary files written off the server thread, holding the block state,
+         * tool, sneaking state, position and tick of each break.
+         * They can be replayed offline to benchmark the mod against real traffic
+         * (see the README). A new trace is started whenever recording is switched
+         * on or the server starts.
+         * </p>
+         * 
+         * @default false
+         * @see HarvestTraceRecorder
+         */
+        public boolean recordHarvestTrace = false;
+
+        /**
+         * Whether the config file should be watched and reloaded automatically when
+         * it changes.
+         * <p>
+         * When set to {@code false}, changes only take effect after running
+         * {@code /autoreplanter reload} or restarting. Turning it on or off takes
+         * effect as soon as the config is reloaded. Invalid files are rejected and
+         * the current configuration is kept.
+         * </p>
+         * 
+         * @default true
+         */
+        public boolean watchConfigFile = true;
+
+        /**
+         * Whether this client should predict replants locally when connected to a
+         * server running the mod.
+         * <p>
+         * The server sends its configuration when joining, and the client shows the
+         * replanted crop as soon as it is broken instead of waiting for the server.
+         * The server's result always wins, so a wrong prediction is rolled back.
+         * Only read on the client; the server's other settings are used for the
+         * prediction itself.
+         * </p>
+         *
+         * @default true
+         */
+        public boolean predictReplantsOnClient = true;
+
         /**
          * Represents a custom block replacement rule.
          */
@@ -199,7 +567,8 @@ public class AutoReplanterConfig {
                 /**
                  * Constructs a custom block replacement rule.
                  * 
-                 * @param target      The target block ID to replace.
+                 * @param target      The target block ID, tag or wildcard to replace, with
+                 *                    optional block state properties.
                  * @param replacement The ID of the block to replace with.
                  * @param damageTool  Whether breaking this block should cost tool durability.
                  */
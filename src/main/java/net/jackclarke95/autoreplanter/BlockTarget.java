@@ -0,0 +1,262 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.state.property.Property;
+import net.minecraft.util.Identifier;
+
+/**
+ * The blocks and block states matched by the target of a custom block
+ * replacement rule.
+ * <p>
+ * A target is one of:
+ * <ul>
+ * <li>a block ID, e.g. {@code farmersdelight:brown_mushroom_colony}</li>
+ * <li>a block tag, e.g. {@code #c:crops}</li>
+ * <li>every block in a namespace, e.g. {@code farmersdelight:*}</li>
+ * </ul>
+ * optionally followed by block state properties in the same syntax as
+ * commands, e.g. {@code minecraft:sweet_berry_bush[age=3]}. A property value
+ * of {@code max} or {@code min} matches the highest or lowest value the
+ * property can take on each block, so {@code #c:crops[age=max]} matches every
+ * fully grown block in the tag. Blocks without a listed property never match.
+ * </p>
+ * <p>
+ * Only states a target pins to their highest {@code age} count as mature (see
+ * {@link #isMature}), so a target like {@code minecraft:pumpkin} is replaced
+ * when broken but never found by area or automatic harvesting.
+ * </p>
+ * <p>
+ * Targets are only evaluated while compiling the {@link ReplantPlanTable}, so
+ * matching costs nothing when a block is broken.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+public final class BlockTarget {
+
+	/** Property value matching the highest value a property can take. */
+	private static final String MAX_VALUE = "max";
+
+	/** Property value matching the lowest value a property can take. */
+	private static final String MIN_VALUE = "min";
+
+	/** The property whose highest value marks a fully grown block. */
+	private static final String AGE_PROPERTY = "age";
+
+	/** The block ID, for a single block. */
+	@Nullable
+	private final Identifier blockId;
+
+	/** The block tag, for a tag target. */
+	@Nullable
+	private final TagKey<Block> tag;
+
+	/** The namespace, for a wildcard target. */
+	@Nullable
+	private final String namespace;
+
+	/** Required property values by property name. */
+	private final Map<String, String> properties;
+
+	private BlockTarget(@Nullable Identifier blockId, @Nullable TagKey<Block> tag, @Nullable String namespace,
+			Map<String, String> properties) {
+		this.blockId = blockId;
+		this.tag = tag;
+		this.namespace = namespace;
+		this.properties = properties;
+	}
+
+	/**
+	 * Parses a target.
+	 *
+	 * @param target The target, e.g. {@code #c:crops[age=max]}.
+	 * @return The parsed target.
+	 * @throws IllegalArgumentException If the target is malformed.
+	 */
+	public static BlockTarget parse(String target) {
+		if (target == null || target.isEmpty()) {
+			throw new IllegalArgumentException("Empty block target");
+		}
+
+		String blocks = target;
+		Map<String, String> properties = Map.of();
+		int open = target.indexOf('[');
+
+		if (open >= 0) {
+			if (!target.endsWith("]")) {
+				throw new IllegalArgumentException("Unclosed block state properties in target: " + target);
+			}
+
+			blocks = target.substring(0, open);
+			properties = parseProperties(target, target.substring(open + 1, target.length() - 1));
+		}
+
+		if (blocks.startsWith("#")) {
+			return new BlockTarget(null, TagKey.of(RegistryKeys.BLOCK, parseIdentifier(target, blocks.substring(1))),
+					null, properties);
+		}
+
+		if (blocks.endsWith(":*")) {
+			String namespace = blocks.substring(0, blocks.length() - 2);
+
+			if (!Identifier.isNamespaceValid(namespace)) {
+				throw new IllegalArgumentException("Invalid namespace in block target: " + target);
+			}
+
+			return new BlockTarget(null, null, namespace, properties);
+		}
+
+		return new BlockTarget(parseIdentifier(target, blocks), null, null, properties);
+	}
+
+	/**
+	 * Parses a target, returning {@code null} instead of throwing if it is
+	 * malformed.
+	 *
+	 * @param target The target.
+	 * @return The parsed target, or {@code null} if it is malformed.
+	 */
+	@Nullable
+	public static BlockTarget tryParse(String target) {
+		try {
+			return parse(target);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static Identifier parseIdentifier(String target, String id) {
+		Identifier identifier = Identifier.tryParse(id);
+
+		if (identifier == null) {
+			throw new IllegalArgumentException("Invalid ID in block target: " + target);
+		}
+
+		return identifier;
+	}
+
+	private static Map<String, String> parseProperties(String target, String properties) {
+		Map<String, String> parsed = new LinkedHashMap<>();
+
+		if (properties.isBlank()) {
+			return parsed;
+		}
+
+		for (String property : properties.split(",")) {
+			int equals = property.indexOf('=');
+
+			if (equals <= 0 || equals == property.length() - 1) {
+				throw new IllegalArgumentException("Invalid block state property in target: " + target);
+			}
+
+			parsed.put(property.substring(0, equals).trim(), property.substring(equals + 1).trim());
+		}
+
+		return parsed;
+	}
+
+	/**
+	 * Gets the registered blocks this target can match. Tags must be loaded.
+	 *
+	 * @return The matching blocks, without regard to block state properties.
+	 */
+	public List<Block> getBlocks() {
+		if (blockId != null) {
+			return Registries.BLOCK.getOrEmpty(blockId).map(List::of).orElse(List.of());
+		}
+
+		List<Block> blocks = new ArrayList<>();
+
+		if (tag != null) {
+			for (RegistryEntry<Block> entry : Registries.BLOCK.iterateEntries(tag)) {
+				blocks.add(entry.value());
+			}
+		} else {
+			for (Block block : Registries.BLOCK) {
+				if (Registries.BLOCK.getId(block).getNamespace().equals(namespace)) {
+					blocks.add(block);
+				}
+			}
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * Checks whether a block state has the required property values. The block
+	 * is assumed to be one of {@link #getBlocks()}.
+	 *
+	 * @param state The block state to check.
+	 * @return {@code true} if every required property has the required value.
+	 */
+	public boolean test(BlockState state) {
+		for (Map.Entry<String, String> required : properties.entrySet()) {
+			Property<?> property = state.getBlock().getStateManager().getProperty(required.getKey());
+
+			if (property == null || !hasValue(state, property, required.getValue())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks whether a matched block state is fully grown according to this
+	 * target: the target must require an {@code age} and the state must be at
+	 * the highest age its block can reach. Targets without an age requirement,
+	 * like a plain block ID, say nothing about ripeness, so none of their states
+	 * are mature.
+	 *
+	 * @param state A block state matched by this target.
+	 * @return {@code true} if the state is a fully grown one.
+	 */
+	public boolean isMature(BlockState state) {
+		if (!properties.containsKey(AGE_PROPERTY)) {
+			return false;
+		}
+
+		Property<?> age = state.getBlock().getStateManager().getProperty(AGE_PROPERTY);
+
+		return age != null && hasMaxValue(state, age);
+	}
+
+	private static <T extends Comparable<T>> boolean hasMaxValue(BlockState state, Property<T> property) {
+		return state.get(property).equals(Collections.max(property.getValues()));
+	}
+
+	private static <T extends Comparable<T>> boolean hasValue(BlockState state, Property<T> property,
+			String value) {
+		T actual = state.get(property);
+		Optional<T> parsed = property.parse(value);
+
+		if (parsed.isPresent()) {
+			return actual.equals(parsed.get());
+		}
+
+		if (MAX_VALUE.equals(value)) {
+			return hasMaxValue(state, property);
+		}
+
+		if (MIN_VALUE.equals(value)) {
+			return actual.equals(Collections.min(property.getValues()));
+		}
+
+		return false;
+	}
+}
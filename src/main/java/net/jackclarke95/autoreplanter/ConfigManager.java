@@ -2,11 +2,20 @@ package net.jackclarke95.autoreplanter;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.util.Identifier;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Manages loading and saving of configuration files for the Auto Replanter mod.
@@ -19,6 +28,10 @@ import java.nio.file.Path;
  * doesn't exist.
  * </p>
  * <p>
+ * Saves are written asynchronously and atomically; see
+ * {@link #saveConfig(AutoReplanterConfig)}.
+ * </p>
+ * <p>
  * The configuration file is located at:
  * {@code <minecraft-config-dir>/autoreplanter.json}
  * </p>
@@ -35,6 +48,24 @@ public class ConfigManager {
     /** Path to the configuration file in the Minecraft config directory. */
     private static final Path CONFIG_PATH = FabricLoader.getInstance().getConfigDir().resolve("autoreplanter.json");
 
+    /** Maximum time to wait for pending saves when flushing. */
+    private static final long FLUSH_TIMEOUT_SECONDS = 5;
+
+    /** Serialized configuration waiting to be written, or {@code null}. */
+    private static final AtomicReference<String> PENDING_SAVE = new AtomicReference<>();
+
+    /** Writes config saves one at a time, off the calling thread. */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Auto Replanter Config Writer");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConfigManager::flush, "Auto Replanter Config Flush"));
+    }
+
     /**
      * Loads the configuration from the config file.
      * <p>
@@ -60,6 +91,8 @@ public class ConfigManager {
                     saveConfig(loadedConfig);
                 }
 
+                validateConfig(loadedConfig);
+
                 return loadedConfig;
             }
         } catch (Exception e) {
@@ -74,25 +107,192 @@ public class ConfigManager {
     }
 
     /**
-     * Saves the given configuration to the config file.
+     * Reads and validates the configuration from the config file for a reload.
      * <p>
-     * The configuration is serialized to JSON format and written to the config
-     * file.
-     * If the parent directories don't exist, they will be created automatically.
+     * Unlike {@link #loadConfig()}, this method never falls back to default
+     * values and never writes the file, so a broken or half-written file leaves
+     * the current configuration in place. It performs blocking file I/O and
+     * should not be called on the server thread.
+     * </p>
+     * 
+     * @return the validated configuration
+     * @throws IOException              if the config file cannot be read
+     * @throws IllegalArgumentException if the config file is empty, malformed or
+     *                                  contains invalid tool tags or IDs, or
+     *                                  malformed custom block replacements
+     * @see ConfigReloader
+     */
+    public static AutoReplanterConfig readConfig() throws IOException {
+        AutoReplanterConfig config;
+
+        try {
+            config = GSON.fromJson(Files.readString(CONFIG_PATH), AutoReplanterConfig.class);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getMessage(), e);
+        }
+
+        if (config == null) {
+            throw new IllegalArgumentException("Config file is empty");
+        }
+
+        validateConfig(config);
+
+        for (String id : config.validToolTags) {
+            requireIdentifier("tool tag", id);
+        }
+
+        for (String id : config.validTools) {
+            requireIdentifier("tool", id);
+        }
+
+        for (AutoReplanterConfig.CustomBlockReplacement rule : config.customBlockReplacements) {
+            if (rule == null) {
+                throw new IllegalArgumentException("Empty custom block replacement");
+            }
+
+            BlockTarget.parse(rule.target);
+            requireIdentifier("replacement block", rule.replacement);
+        }
+
+        return config;
+    }
+
+    /**
+     * Validates a configuration, replacing missing values with defaults and
+     * clamping numeric values to their allowed range.
+     * 
+     * @param config the configuration to validate
+     */
+    public static void validateConfig(AutoReplanterConfig config) {
+        AutoReplanterConfig defaults = new AutoReplanterConfig();
+
+        if (config.sneakMode == null) {
+            config.sneakMode = SneakMode.ALWAYS;
+        }
+
+        if (config.areaHarvestShape == null) {
+            config.areaHarvestShape = AreaHarvestShape.SQUARE;
+        }
+
+        if (config.throttleMode == null) {
+            config.throttleMode = ThrottleMode.VANILLA;
+        }
+
+        if (config.validToolTags == null) {
+            config.validToolTags = defaults.validToolTags;
+        }
+
+        if (config.validTools == null) {
+            config.validTools = defaults.validTools;
+        }
+
+        if (config.customBlockReplacements == null) {
+            config.customBlockReplacements = List.of();
+        }
+
+        config.areaHarvestRadius = Math.max(0, config.areaHarvestRadius);
+        config.areaHarvestRadiusPerEnchantmentLevel = Math.max(0, config.areaHarvestRadiusPerEnchantmentLevel);
+        config.maxAreaHarvestRadius = Math.max(0, config.maxAreaHarvestRadius);
+        config.deferredReplantBudgetMicros = Math.max(0, config.deferredReplantBudgetMicros);
+        config.autoHarvestIntervalTicks = Math.max(0, config.autoHarvestIntervalTicks);
+        config.autoHarvestBudgetMicros = Math.max(0, config.autoHarvestBudgetMicros);
+        config.maxMatureHarvestsPerSecond = Math.max(1, config.maxMatureHarvestsPerSecond);
+        config.maxImmatureHarvestsPerSecond = Math.max(1, config.maxImmatureHarvestsPerSecond);
+        config.reducedLoadMspt = Math.max(0, config.reducedLoadMspt);
+        config.deferredLoadMspt = Math.max(config.reducedLoadMspt, config.deferredLoadMspt);
+        config.vanillaLoadMspt = Math.max(config.deferredLoadMspt, config.vanillaLoadMspt);
+        config.loadSheddingHysteresisMspt = Math.max(0, config.loadSheddingHysteresisMspt);
+    }
+
+    /**
+     * Creates a deep copy of a configuration.
+     * 
+     * @param config the configuration to copy
+     * @return the copy
+     */
+    public static AutoReplanterConfig copyConfig(AutoReplanterConfig config) {
+        return GSON.fromJson(GSON.toJson(config), AutoReplanterConfig.class);
+    }
+
+    /**
+     * Gets the path of the config file.
+     * 
+     * @return the config file path
+     */
+    public static Path getConfigPath() {
+        return CONFIG_PATH;
+    }
+
+    private static void requireIdentifier(String kind, String id) {
+        if (id == null || Identifier.tryParse(id) == null) {
+            throw new IllegalArgumentException("Invalid " + kind + " ID: " + id);
+        }
+    }
+
+    /**
+     * Saves the given configuration to the config file in the background.
+     * <p>
+     * The configuration is serialized to JSON immediately, so it may be changed
+     * afterwards, and written by a single background thread. When several saves
+     * are requested before the writer gets to them, only the latest one is
+     * written. Each write goes to a temporary file which is then moved over the
+     * config file, so the file is never left half-written. Pending saves are
+     * flushed when the JVM shuts down.
      * </p>
      * 
      * @param config the configuration object to save
-     * @throws RuntimeException if the config file cannot be written (wrapped
-     *                          IOException)
      * @see #loadConfig()
+     * @see #flush()
      */
     public static void saveConfig(AutoReplanterConfig config) {
+        String json = GSON.toJson(config);
+
+        // Only schedule a write if one is not already waiting to pick this up
+        if (PENDING_SAVE.getAndSet(json) == null) {
+            WRITER.execute(ConfigManager::writePendingSave);
+        }
+    }
+
+    /**
+     * Waits for any pending saves to be written.
+     * <p>
+     * Gives up after a few seconds, so a stalled file system cannot block
+     * shutdown forever.
+     * </p>
+     */
+    public static void flush() {
+        try {
+            WRITER.submit(ConfigManager::writePendingSave).get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("Failed to flush config: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the latest pending save, if any, to a temporary file and moves it
+     * over the config file. Runs on the writer thread.
+     */
+    private static void writePendingSave() {
+        String json = PENDING_SAVE.getAndSet(null);
+
+        if (json == null) {
+            return;
+        }
+
+        Path tempPath = CONFIG_PATH.resolveSibling(CONFIG_PATH.getFileName() + ".tmp");
+
         try {
             Files.createDirectories(CONFIG_PATH.getParent());
-            String json = GSON.toJson(config);
-            Files.writeString(CONFIG_PATH, json);
+            Files.writeString(tempPath, json);
+
+            try {
+                Files.move(tempPath, CONFIG_PATH, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, CONFIG_PATH, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             System.err.println("Failed to save config: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
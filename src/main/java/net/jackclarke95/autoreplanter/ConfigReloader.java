@@ -0,0 +1,191 @@
+package net.jackclarke95.autoreplanter;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reloads the configuration from disk without restarting the server.
+ * <p>
+ * Reloads can be triggered on demand (by the {@code /autoreplanter reload}
+ * command) or automatically by watching the config file for changes. Reading,
+ * parsing, validating and compiling the configuration all happen on a
+ * dedicated background thread; the result is handed to the publisher, which
+ * swaps it in atomically. If the file is invalid, the current configuration
+ * stays in place.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see ConfigManager#readConfig()
+ * @see ConfigSnapshot
+ */
+public final class ConfigReloader {
+
+	/** How long to wait for an editor to finish writing before reloading. */
+	private static final long DEBOUNCE_MILLIS = 250;
+
+	/** Runs reloads one at a time, off the server thread. */
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Auto Replanter Config Reload");
+		thread.setDaemon(true);
+
+		return thread;
+	});
+
+	/** Compiles and publishes a successfully read configuration. */
+	private final Consumer<AutoReplanterConfig> publisher;
+
+	@Nullable
+	private WatchService watchService;
+
+	/**
+	 * Constructs a reloader.
+	 *
+	 * @param publisher Compiles and publishes each successfully read
+	 *                  configuration. Called on the reload thread.
+	 */
+	public ConfigReloader(Consumer<AutoReplanterConfig> publisher) {
+		this.publisher = publisher;
+	}
+
+	/**
+	 * Reloads the configuration in the background.
+	 *
+	 * @return A future completed with the new configuration once it has been
+	 *         published, or exceptionally if the file could not be read or is
+	 *         invalid.
+	 */
+	public CompletableFuture<AutoReplanterConfig> reload() {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				AutoReplanterConfig config = ConfigManager.readConfig();
+
+				publisher.accept(config);
+
+				return config;
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Starts watching the config file, reloading whenever it changes.
+	 * <p>
+	 * Does nothing if the file is already being watched.
+	 * </p>
+	 */
+	public synchronized void startWatching() {
+		if (watchService != null) {
+			return;
+		}
+
+		Path configPath = ConfigManager.getConfigPath();
+
+		try {
+			WatchService service = FileSystems.getDefault().newWatchService();
+
+			configPath.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+			watchService = service;
+
+			Thread thread = new Thread(() -> watch(service, configPath.getFileName()),
+					"Auto Replanter Config Watcher");
+			thread.setDaemon(true);
+			thread.start();
+		} catch (IOException e) {
+			System.err.println("Failed to watch Auto Replanter config: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Stops watching the config file.
+	 */
+	public synchronized void stopWatching() {
+		if (watchService == null) {
+			return;
+		}
+
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			System.err.println("Failed to stop watching Auto Replanter config: " + e.getMessage());
+		}
+
+		watchService = null;
+	}
+
+	/**
+	 * Waits for changes to the config file until the watch service is closed.
+	 * Failed or slow reloads are reported, and watching carries on.
+	 *
+	 * @param service  The watch service registered on the config directory.
+	 * @param fileName The file name of the config file.
+	 */
+	private void watch(WatchService service, Path fileName) {
+		try {
+			while (true) {
+				WatchKey key = service.take();
+				boolean changed = false;
+
+				for (WatchEvent<?> event : key.pollEvents()) {
+					changed |= fileName.equals(event.context());
+				}
+
+				key.reset();
+
+				if (!changed) {
+					continue;
+				}
+
+				// Let the writer finish, and fold the burst of events it causes into one
+				Thread.sleep(DEBOUNCE_MILLIS);
+
+				for (WatchKey pending = service.poll(); pending != null; pending = service.poll()) {
+					pending.pollEvents();
+					pending.reset();
+				}
+
+				try {
+					reload().get(DEBOUNCE_MILLIS * 40, TimeUnit.MILLISECONDS);
+				} catch (ExecutionException e) {
+					System.err.println("Failed to reload Auto Replanter config: " + describe(e.getCause()));
+				} catch (TimeoutException e) {
+					// The reload carries on in the background, and later ones queue behind it
+					System.err.println("Auto Replanter config reload is taking longer than expected");
+				}
+			}
+		} catch (ClosedWatchServiceException | InterruptedException e) {
+			// Watching stopped
+		}
+	}
+
+	/**
+	 * Gets a readable reason for a failed reload.
+	 *
+	 * @param error The error a reload future completed with.
+	 * @return The message of the underlying cause.
+	 */
+	public static String describe(Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+				: error;
+
+		return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+	}
+}
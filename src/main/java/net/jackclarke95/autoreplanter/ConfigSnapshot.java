@@ -0,0 +1,147 @@
+package net.jackclarke95.autoreplanter;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.enchantment.Enchantment;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.entry.RegistryEntry;
+
+/**
+ * An immutable, fully compiled view of the configuration.
+ * <p>
+ * A snapshot bundles the configuration with everything compiled from it (the
+ * replant plans and tool validity) and the resolved Auto Replanter
+ * enchantment. {@link AutoReplanter} publishes a new snapshot with a single
+ * volatile write whenever the configuration or data packs are reloaded, and
+ * each block break event reads it exactly once, so event handling never sees
+ * a half-applied configuration.
+ * </p>
+ * <p>
+ * The wrapped {@link AutoReplanterConfig} must not be modified once it has
+ * been compiled into a snapshot.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see ConfigReloader
+ */
+public final class ConfigSnapshot {
+
+	/** The configuration this snapshot was compiled from. */
+	public final AutoReplanterConfig config;
+
+	/** Compiled replant plans for every block state. */
+	public final ReplantPlanTable replantPlans;
+
+	/** Tag and ID based tool validity per item. */
+	public final ToolValidityTable validTools;
+
+	/**
+	 * Resolved Auto Replanter enchantment from the companion data pack, or
+	 * {@code null} if the data pack is not enabled.
+	 */
+	@Nullable
+	public final RegistryEntry<Enchantment> autoReplanterEnchantment;
+
+	/**
+	 * Snapshots for reduced {@link LoadLevel}s, by ordinal, created on first use.
+	 * Racing threads may each create one, which is harmless as they are equal.
+	 */
+	private final ConfigSnapshot[] loadLevelSnapshots = new ConfigSnapshot[LoadLevel.values().length];
+
+	private ConfigSnapshot(AutoReplanterConfig config, ReplantPlanTable replantPlans, ToolValidityTable validTools,
+			@Nullable RegistryEntry<Enchantment> autoReplanterEnchantment) {
+		this.config = config;
+		this.replantPlans = replantPlans;
+		this.validTools = validTools;
+		this.autoReplanterEnchantment = autoReplanterEnchantment;
+	}
+
+	/**
+	 * Creates a snapshot that matches no blocks or tools, used until registries
+	 * and tags have been loaded.
+	 *
+	 * @param config The configuration loaded at startup.
+	 * @return The uncompiled snapshot.
+	 */
+	public static ConfigSnapshot uncompiled(AutoReplanterConfig config) {
+		return new ConfigSnapshot(config, ReplantPlanTable.EMPTY, ToolValidityTable.EMPTY, null);
+	}
+
+	/**
+	 * Compiles a snapshot from a configuration.
+	 *
+	 * @param config                   The configuration to compile.
+	 * @param autoReplanterEnchantment The resolved Auto Replanter enchantment, if
+	 *                                 any.
+	 * @return The compiled snapshot.
+	 */
+	public static ConfigSnapshot compile(AutoReplanterConfig config,
+			@Nullable RegistryEntry<Enchantment> autoReplanterEnchantment) {
+		return new ConfigSnapshot(config, ReplantPlanTable.compile(config), ToolValidityTable.compile(config),
+				autoReplanterEnchantment);
+	}
+
+	/**
+	 * Gets a snapshot with the features switched off by a load level disabled,
+	 * sharing this snapshot's compiled plans and tool validity.
+	 *
+	 * @param level The current load level.
+	 * @return The snapshot to handle events with, or this snapshot for
+	 *         {@link LoadLevel#FULL}.
+	 */
+	public ConfigSnapshot forLoadLevel(LoadLevel level) {
+		if (level == LoadLevel.FULL) {
+			return this;
+		}
+
+		ConfigSnapshot reduced = loadLevelSnapshots[level.ordinal()];
+
+		if (reduced == null) {
+			reduced = new ConfigSnapshot(level.apply(config), replantPlans, validTools, autoReplanterEnchantment);
+			loadLevelSnapshots[level.ordinal()] = reduced;
+		}
+
+		return reduced;
+	}
+
+	/**
+	 * Checks if the given tool is valid for auto-replanting based on configured
+	 * tool validation settings
+	 * or if it has the Auto Replanter enchantment.
+	 *
+	 * @param tool The ItemStack representing the tool to check.
+	 * @return {@code true} if the tool matches any of the configured validation
+	 *         criteria or has the Auto Replanter enchantment,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isValidTool(ItemStack tool) {
+		if (tool.isEmpty()) {
+			return false;
+		}
+
+		// Check traditional valid tool criteria, precomputed per item
+		if (validTools.isValid(tool.getItem())) {
+			return true;
+		}
+
+		// Check if tool has Auto Replanter enchantment
+		return getAutoReplanterLevel(tool) > 0;
+	}
+
+	/**
+	 * Gets the level of the Auto Replanter enchantment on the given tool.
+	 *
+	 * @param tool The ItemStack to check for the enchantment.
+	 * @return The enchantment level, or {@code 0} if the tool is not enchanted
+	 *         with it.
+	 */
+	public int getAutoReplanterLevel(ItemStack tool) {
+		// Not registered unless the companion enchantment data pack is enabled
+		if (tool.isEmpty() || autoReplanterEnchantment == null) {
+			return 0;
+		}
+
+		return tool.getEnchantments().getLevel(autoReplanterEnchantment);
+	}
+}
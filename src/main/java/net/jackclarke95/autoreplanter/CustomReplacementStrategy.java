@@ -0,0 +1,117 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+/**
+ * The built-in {@link ReplantStrategy} for the configured custom block
+ * replacements, which replace the broken block with another block.
+ * <p>
+ * Unlike the other strategies, it is compiled from the configuration each time
+ * the {@link ReplantPlanTable} is. Rule targets may be tags, namespace
+ * wildcards and block state predicates (see {@link BlockTarget}), which are
+ * expanded to the blocks they match here.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#customBlockReplacements
+ */
+public final class CustomReplacementStrategy implements ReplantStrategy {
+
+	/** The rules that may match each block, in configuration order. */
+	private final Map<Block, List<CustomRule>> rules;
+
+	private CustomReplacementStrategy(Map<Block, List<CustomRule>> rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * Compiles the custom block replacement rules. Tags must be loaded.
+	 * <p>
+	 * Rules whose target is malformed or matches no blocks, or whose replacement
+	 * block does not exist, are ignored.
+	 * </p>
+	 *
+	 * @param replacements The configured rules.
+	 * @return The compiled strategy.
+	 */
+	public static CustomReplacementStrategy compile(List<AutoReplanterConfig.CustomBlockReplacement> replacements) {
+		Map<Block, List<CustomRule>> rules = new IdentityHashMap<>();
+
+		for (AutoReplanterConfig.CustomBlockReplacement rule : replacements) {
+			BlockTarget target = BlockTarget.tryParse(rule.target);
+			Block replacement = resolveBlock(rule.replacement);
+
+			if (target == null || replacement == null) {
+				continue;
+			}
+
+			// Two plans are shared by every state the rule matches, picked by maturity
+			CustomRule customRule = new CustomRule(target,
+					new ReplantPlan(replacement.getDefaultState(), replacement.asItem(), true, rule.damageTool),
+					new ReplantPlan(replacement.getDefaultState(), replacement.asItem(), false, rule.damageTool));
+
+			for (Block block : target.getBlocks()) {
+				rules.computeIfAbsent(block, key -> new ArrayList<>()).add(customRule);
+			}
+		}
+
+		return new CustomReplacementStrategy(rules);
+	}
+
+	@Override
+	public boolean appliesTo(Block block) {
+		return rules.containsKey(block);
+	}
+
+	/**
+	 * Finds the plan of the last rule matching a block state, so that later
+	 * rules override earlier ones. The state is only mature if the rule's target
+	 * says so, see {@link BlockTarget#isMature}.
+	 */
+	@Override
+	@Nullable
+	public ReplantPlan createPlan(BlockState state) {
+		List<CustomRule> blockRules = rules.get(state.getBlock());
+
+		for (int i = blockRules.size() - 1; i >= 0; i--) {
+			CustomRule rule = blockRules.get(i);
+
+			if (rule.target().test(state)) {
+				return rule.target().isMature(state) ? rule.maturePlan() : rule.immaturePlan();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Resolves a block ID string to a registered block.
+	 *
+	 * @param blockId The block ID (e.g., "minecraft:wheat").
+	 * @return The block, or {@code null} if the ID is malformed or not registered.
+	 */
+	@Nullable
+	private static Block resolveBlock(String blockId) {
+		Identifier id = blockId != null ? Identifier.tryParse(blockId) : null;
+
+		return id != null ? Registries.BLOCK.getOrEmpty(id).orElse(null) : null;
+	}
+
+	/**
+	 * A custom block replacement rule with its target parsed and its plans for
+	 * mature and other states compiled.
+	 */
+	private record CustomRule(BlockTarget target, ReplantPlan maturePlan, ReplantPlan immaturePlan) {
+	}
+}
@@ -0,0 +1,184 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.UUID;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Queue of harvested blocks whose drops and replanting have been deferred.
+ * <p>
+ * One queue exists per {@link ServerWorld}. Entries are stored as packed block
+ * positions and raw block state IDs (which also index the
+ * {@link ReplantPlanTable}) in a growable ring buffer, and are drained at the
+ * end of each world tick within a time budget, so heavy harvesting is spread
+ * across ticks instead of spiking a single one.
+ * </p>
+ * <p>
+ * Players are stored by UUID, so the queue never keeps a player who has left
+ * or died alive. They are looked up again when their entries are drained.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#deferReplants
+ */
+public final class DeferredReplantQueue {
+
+	/**
+	 * Performs the deferred work for a single queued block.
+	 */
+	@FunctionalInterface
+	public interface Handler {
+		/**
+		 * Drops the loot for and replants a previously broken block.
+		 *
+		 * @param world    The world the block was broken in.
+		 * @param pos      The position of the broken block.
+		 * @param state    The block state before it was broken.
+		 * @param playerId The UUID of the player who broke the block.
+		 * @param tool     The tool the block was broken with.
+		 */
+		void replant(ServerWorld world, BlockPos pos, BlockState state, UUID playerId, ItemStack tool);
+	}
+
+	/** Initial capacity of the ring buffer. Must be a power of two. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] positions = new long[INITIAL_CAPACITY];
+	private int[] stateIds = new int[INITIAL_CAPACITY];
+	private long[] enqueueTicks = new long[INITIAL_CAPACITY];
+	private UUID[] playerIds = new UUID[INITIAL_CAPACITY];
+	private ItemStack[] tools = new ItemStack[INITIAL_CAPACITY];
+
+	/** Index of the oldest entry. */
+	private int head;
+
+	/** Number of queued entries. */
+	private int size;
+
+	/** Number of entries drained during the most recent call to {@link #drain}. */
+	private int drainedLastTick;
+
+	/**
+	 * Adds a broken block to the end of the queue.
+	 *
+	 * @param pos    The position of the broken block.
+	 * @param state  The block state before it was broken.
+	 * @param player The player who broke the block.
+	 * @param tool   The tool the block was broken with.
+	 * @param tick   The world time at which the block was broken.
+	 */
+	public void enqueue(BlockPos pos, BlockState state, PlayerEntity player, ItemStack tool, long tick) {
+		if (size == positions.length) {
+			grow();
+		}
+
+		int tail = (head + size) & (positions.length - 1);
+
+		positions[tail] = pos.asLong();
+		stateIds[tail] = Block.getRawIdFromState(state);
+		enqueueTicks[tail] = tick;
+		playerIds[tail] = player.getUuid();
+		tools[tail] = tool;
+		size++;
+	}
+
+	/**
+	 * Processes queued entries in order until the queue is empty or the budget is
+	 * spent. At least one entry is processed per call so the queue always makes
+	 * progress.
+	 *
+	 * @param world       The world this queue belongs to.
+	 * @param budgetNanos The maximum time to spend, in nanoseconds.
+	 * @param handler     The handler performing the deferred work.
+	 */
+	public void drain(ServerWorld world, long budgetNanos, Handler handler) {
+		long start = System.nanoTime();
+		int drained = 0;
+
+		while (size > 0) {
+			int index = head;
+			UUID playerId = playerIds[index];
+			ItemStack tool = tools[index];
+
+			// Release references before running the handler
+			playerIds[index] = null;
+			tools[index] = null;
+			head = (head + 1) & (positions.length - 1);
+			size--;
+
+			handler.replant(world, BlockPos.fromLong(positions[index]), Block.getStateFromRawId(stateIds[index]),
+					playerId, tool);
+			drained++;
+
+			if (System.nanoTime() - start >= budgetNanos) {
+				break;
+			}
+		}
+
+		drainedLastTick = drained;
+	}
+
+	/**
+	 * Gets the number of entries waiting to be processed.
+	 *
+	 * @return The queue depth.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets how long the oldest queued entry has been waiting.
+	 *
+	 * @param currentTick The current world time.
+	 * @return The age of the oldest entry in ticks, or {@code 0} if the queue is
+	 *         empty.
+	 */
+	public long getOldestAge(long currentTick) {
+		return size == 0 ? 0 : currentTick - enqueueTicks[head];
+	}
+
+	/**
+	 * Gets the number of entries processed during the most recent drain.
+	 *
+	 * @return The number of entries drained last tick.
+	 */
+	public int getDrainedLastTick() {
+		return drainedLastTick;
+	}
+
+	/**
+	 * Doubles the capacity of the ring buffer, moving the oldest entry to index 0.
+	 */
+	private void grow() {
+		int capacity = positions.length * 2;
+		long[] newPositions = new long[capacity];
+		int[] newStateIds = new int[capacity];
+		long[] newEnqueueTicks = new long[capacity];
+		UUID[] newPlayerIds = new UUID[capacity];
+		ItemStack[] newTools = new ItemStack[capacity];
+
+		for (int i = 0; i < size; i++) {
+			int index = (head + i) & (positions.length - 1);
+
+			newPositions[i] = positions[index];
+			newStateIds[i] = stateIds[index];
+			newEnqueueTicks[i] = enqueueTicks[index];
+			newPlayerIds[i] = playerIds[index];
+			newTools[i] = tools[index];
+		}
+
+		positions = newPositions;
+		stateIds = newStateIds;
+		enqueueTicks = newEnqueueTicks;
+		playerIds = newPlayerIds;
+		tools = newTools;
+		head = 0;
+	}
+}
@@ -0,0 +1,152 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Collects harvested drops so they can be spawned as few item entities as
+ * possible.
+ * <p>
+ * Stacks with the same item and components are merged up to their maximum
+ * stack size before any {@link ItemEntity} exists, so the server does not have
+ * to spawn, track and merge-scan one entity per harvested crop. All pooled
+ * drops are spawned at the first position they were harvested from.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#consolidateDrops
+ */
+public final class DropPool {
+
+	/** The world the pooled drops will be spawned in. */
+	private final World world;
+
+	/** The player who harvested the pooled drops. */
+	private final PlayerEntity player;
+
+	/** The merged stacks, each no larger than its maximum stack size. */
+	private final List<ItemStack> stacks = new ArrayList<>();
+
+	/** Where the pooled drops will be spawned, set by the first drop. */
+	@Nullable
+	private BlockPos origin;
+
+	/**
+	 * Constructs an empty drop pool.
+	 *
+	 * @param world  The world the pooled drops will be spawned in.
+	 * @param player The player who harvested the drops.
+	 */
+	public DropPool(World world, PlayerEntity player) {
+		this.world = world;
+		this.player = player;
+	}
+
+	/**
+	 * Gets the world the pooled drops will be spawned in.
+	 *
+	 * @return The world.
+	 */
+	public World getWorld() {
+		return world;
+	}
+
+	/**
+	 * Gets the player who harvested the pooled drops.
+	 *
+	 * @return The player.
+	 */
+	public PlayerEntity getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Adds a harvested stack to the pool, merging it into matching stacks.
+	 *
+	 * @param pos   The position the stack was harvested from.
+	 * @param stack The stack to add. The pool takes ownership of it.
+	 */
+	public void add(BlockPos pos, ItemStack stack) {
+		if (origin == null) {
+			origin = pos.toImmutable();
+		}
+
+		for (ItemStack pooled : stacks) {
+			if (stack.isEmpty()) {
+				return;
+			}
+
+			int space = pooled.getMaxCount() - pooled.getCount();
+
+			if (space > 0 && ItemStack.areItemsAndComponentsEqual(pooled, stack)) {
+				int moved = Math.min(space, stack.getCount());
+
+				pooled.increment(moved);
+				stack.decrement(moved);
+			}
+		}
+
+		if (!stack.isEmpty()) {
+			stacks.add(stack);
+		}
+	}
+
+	/**
+	 * Checks whether the pool holds any drops.
+	 *
+	 * @return {@code true} if there is nothing to spawn, {@code false} otherwise.
+	 */
+	public boolean isEmpty() {
+		return stacks.isEmpty();
+	}
+
+	/**
+	 * Gets the number of item entities spawning the pool would create.
+	 *
+	 * @return The number of pooled stacks.
+	 */
+	public int size() {
+		return stacks.size();
+	}
+
+	/**
+	 * Spawns one item entity per pooled stack and empties the pool.
+	 *
+	 * @return The number of item entities spawned.
+	 */
+	public int spawn() {
+		int spawned = stacks.size();
+
+		for (ItemStack stack : stacks) {
+			spawnStack(world, origin, stack);
+		}
+
+		stacks.clear();
+		origin = null;
+
+		return spawned;
+	}
+
+	/**
+	 * Spawns a single stack as an item entity in the centre of a block.
+	 *
+	 * @param world The world to spawn the stack in.
+	 * @param pos   The block position to spawn the stack at.
+	 * @param stack The stack to spawn.
+	 */
+	public static void spawnStack(World world, BlockPos pos, ItemStack stack) {
+		ItemEntity itemEntity = new ItemEntity(world, pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5,
+				stack);
+
+		world.spawnEntity(itemEntity);
+	}
+}
@@ -0,0 +1,118 @@
+package net.jackclarke95.autoreplanter;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.entity.player.PlayerEntity;
+
+/**
+ * Limits how quickly each player can harvest with token buckets.
+ * <p>
+ * Every player has one bucket for mature and one for immature harvests. Each
+ * holds up to one second's worth of tokens and refills at its configured rate
+ * per server tick, so short bursts are allowed but a sustained rate above the
+ * limit, for example from an autoclicker with a fast tool, is not. Buckets are
+ * kept in a primitive map keyed by entity ID and refilled lazily when used.
+ * </p>
+ * <p>
+ * Each world keeps its own limiter in {@link WorldReplantState}, so it is only
+ * used from the thread ticking that world and needs no locking. A player is
+ * only in one world at a time, and a bucket holds at most a second's worth of
+ * tokens, so changing dimension gains them no more than one extra burst.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#limitHarvestRate
+ */
+public final class HarvestRateLimiter {
+
+	/** Server ticks per second, at which the per-second rates are refilled. */
+	private static final double TICKS_PER_SECOND = 20.0;
+
+	private final Int2ObjectMap<Buckets> buckets = new Int2ObjectOpenHashMap<>();
+
+	/**
+	 * Takes a token for a harvest, if the player has one left.
+	 *
+	 * @param player            The player harvesting.
+	 * @param mature            Whether the harvested block is mature.
+	 * @param tick              The current server tick.
+	 * @param maturePerSecond   The mature harvests allowed per second.
+	 * @param immaturePerSecond The immature harvests allowed per second.
+	 * @return {@code true} if the harvest is allowed, {@code false} if the player
+	 *         has exceeded the limit.
+	 */
+	public boolean tryAcquire(PlayerEntity player, boolean mature, int tick, int maturePerSecond,
+			int immaturePerSecond) {
+		Buckets playerBuckets = buckets.get(player.getId());
+
+		if (playerBuckets == null) {
+			playerBuckets = new Buckets(maturePerSecond, immaturePerSecond, tick);
+			buckets.put(player.getId(), playerBuckets);
+		}
+
+		playerBuckets.refill(tick, maturePerSecond, immaturePerSecond);
+
+		if (mature) {
+			if (playerBuckets.matureTokens < 1) {
+				return false;
+			}
+
+			playerBuckets.matureTokens--;
+		} else {
+			if (playerBuckets.immatureTokens < 1) {
+				return false;
+			}
+
+			playerBuckets.immatureTokens--;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Forgets a player, e.g. when they disconnect.
+	 *
+	 * @param player The player.
+	 */
+	public void remove(PlayerEntity player) {
+		buckets.remove(player.getId());
+	}
+
+	/**
+	 * Gets the number of players being tracked.
+	 *
+	 * @return The number of players with buckets.
+	 */
+	public int size() {
+		return buckets.size();
+	}
+
+	/**
+	 * The token buckets of one player.
+	 */
+	private static final class Buckets {
+		double matureTokens;
+		double immatureTokens;
+		int lastRefillTick;
+
+		Buckets(int maturePerSecond, int immaturePerSecond, int tick) {
+			this.matureTokens = maturePerSecond;
+			this.immatureTokens = immaturePerSecond;
+			this.lastRefillTick = tick;
+		}
+
+		void refill(int tick, int maturePerSecond, int immaturePerSecond) {
+			int elapsed = tick - lastRefillTick;
+
+			if (elapsed <= 0) {
+				return;
+			}
+
+			matureTokens = Math.min(maturePerSecond, matureTokens + elapsed * maturePerSecond / TICKS_PER_SECOND);
+			immatureTokens = Math.min(immaturePerSecond,
+					immatureTokens + elapsed * immaturePerSecond / TICKS_PER_SECOND);
+			lastRefillTick = tick;
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package net.jackclarke95.autoreplanter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The binary format of harvest traces, and a reader for them.
+ * <p>
+ * A trace starts with a header of {@link #MAGIC} and {@link #VERSION}, followed
+ * by records that each start with a type byte:
+ * </p>
+ * <ul>
+ * <li>{@link #BREAK} - a block break or right-click harvest handled by the mod: the
+ * block state's raw ID, the tool's raw item ID, a byte of {@link #SNEAKING},
+ * {@link #ENCHANTED}, {@link #AUTO_REPLANTER} and {@link #RIGHT_CLICK} flags,
+ * the packed position and the server tick (22 bytes in total)</li>
+ * <li>{@link #BLOCK_STATE} - the raw ID of a block state and its string form,
+ * written before the first break of that state</li>
+ * <li>{@link #ITEM} - the raw ID of an item and its ID, written before the
+ * first break with that tool</li>
+ * </ul>
+ * <p>
+ * Raw IDs keep break records small, and the palette records let a trace be
+ * read against registries whose raw IDs differ, such as a newer version of the
+ * game or mod pack. Numbers are big-endian, and strings are an unsigned short
+ * length followed by UTF-8 bytes. A trace cut short by a crash ends at its last
+ * complete record.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see HarvestTraceRecorder
+ */
+public final class HarvestTrace {
+
+	/** The first four bytes of every trace: "ARTR". */
+	public static final int MAGIC = 0x41525452;
+
+	/** The format version, incremented on incompatible changes. */
+	public static final short VERSION = 1;
+
+	/** Record type of a block break. */
+	public static final byte BREAK = 0;
+
+	/** Record type of a block state palette entry. */
+	public static final byte BLOCK_STATE = 1;
+
+	/** Record type of an item palette entry. */
+	public static final byte ITEM = 2;
+
+	/** Size of a break record, including its type byte. */
+	public static final int BREAK_SIZE = 1 + Integer.BYTES + Integer.BYTES + 1 + Long.BYTES + Integer.BYTES;
+
+	/** Flag set if the player was sneaking. */
+	public static final int SNEAKING = 1;
+
+	/** Flag set if the tool had any enchantments. */
+	public static final int ENCHANTED = 1 << 1;
+
+	/** Flag set if the tool had the Auto Replanter enchantment. */
+	public static final int AUTO_REPLANTER = 1 << 2;
+
+	/** Flag set if the crop was right-click harvested rather than broken. */
+	public static final int RIGHT_CLICK = 1 << 3;
+
+	private static final int READ_BUFFER_SIZE = 1 << 16;
+
+	private HarvestTrace() {
+	}
+
+	/**
+	 * Receives the records of a trace, in the order they were recorded.
+	 */
+	public interface Visitor {
+		/**
+		 * Receives a block state palette entry.
+		 *
+		 * @param rawId The raw ID used by later breaks.
+		 * @param state The block state's string form, as used by commands.
+		 */
+		void blockState(int rawId, String state);
+
+		/**
+		 * Receives an item palette entry.
+		 *
+		 * @param rawId The raw ID used by later breaks.
+		 * @param item  The item's ID.
+		 */
+		void item(int rawId, String item);
+
+		/**
+		 * Receives a block break.
+		 *
+		 * @param stateId  The raw ID of the broken block state.
+		 * @param itemId   The raw ID of the tool's item.
+		 * @param flags    The sneaking, enchantment and right-click flags.
+		 * @param position The packed position of the block.
+		 * @param tick     The server tick the block was broken on.
+		 */
+		void blockBreak(int stateId, int itemId, int flags, long position, int tick);
+	}
+
+	/**
+	 * Reads a trace from a file.
+	 *
+	 * @param path    The trace file.
+	 * @param visitor The visitor to pass the records to.
+	 * @throws IOException If the file cannot be read or is not a harvest trace.
+	 */
+	public static void read(Path path, Visitor visitor) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+			buffer.flip();
+
+			if (!fill(channel, buffer, Integer.BYTES + Short.BYTES) || buffer.getInt() != MAGIC) {
+				throw new IOException("Not a harvest trace: " + path);
+			}
+
+			short version = buffer.getShort();
+
+			if (version != VERSION) {
+				throw new IOException("Unsupported harvest trace version " + version + ": " + path);
+			}
+
+			while (fill(channel, buffer, 1)) {
+				// A trace cut short in the middle of a record ends at the previous one
+				if (!readRecord(channel, buffer, visitor)) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads one record from the buffer, refilling it from the channel as needed.
+	 *
+	 * @return {@code false} if the trace ended in the middle of the record.
+	 */
+	private static boolean readRecord(FileChannel channel, ByteBuffer buffer, Visitor visitor) throws IOException {
+		byte type = buffer.get();
+
+		if (type == BREAK) {
+			if (!fill(channel, buffer, BREAK_SIZE - 1)) {
+				return false;
+			}
+
+			visitor.blockBreak(buffer.getInt(), buffer.getInt(), buffer.get(), buffer.getLong(), buffer.getInt());
+
+			return true;
+		}
+
+		if (type != BLOCK_STATE && type != ITEM) {
+			throw new IOException("Unknown harvest trace record type " + type);
+		}
+
+		if (!fill(channel, buffer, Integer.BYTES + Short.BYTES)) {
+			return false;
+		}
+
+		int rawId = buffer.getInt();
+		int length = Short.toUnsignedInt(buffer.getShort());
+
+		if (!fill(channel, buffer, length)) {
+			return false;
+		}
+
+		byte[] bytes = new byte[length];
+
+		buffer.get(bytes);
+
+		String value = new String(bytes, StandardCharsets.UTF_8);
+
+		if (type == BLOCK_STATE) {
+			visitor.blockState(rawId, value);
+		} else {
+			visitor.item(rawId, value);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Makes sure the buffer has at least the given number of bytes remaining,
+	 * reading more from the channel if needed.
+	 *
+	 * @return {@code false} if the channel ended first.
+	 */
+	private static boolean fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return true;
+		}
+
+		buffer.compact();
+
+		try {
+			while (buffer.position() < bytes) {
+				if (channel.read(buffer) < 0) {
+					return false;
+				}
+			}
+		} finally {
+			buffer.flip();
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,300 @@
+package net.jackclarke95.autoreplanter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.command.argument.BlockArgumentParser;
+import net.minecraft.enchantment.EnchantmentHelper;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Records the breaks of replant candidates handled by the mod to a
+ * {@link HarvestTrace} file, so real traffic can be replayed offline to
+ * benchmark new versions.
+ * <p>
+ * Records are encoded into a small pool of buffers. Full buffers are handed to
+ * a background thread that writes them to a {@link FileChannel}, so the server
+ * thread never waits on the disk. If the writer falls so far behind that no
+ * buffer is free, breaks are dropped and counted rather than blocking the
+ * server. Buffers are also handed over every second, so a crash loses at most
+ * about a second of breaks.
+ * </p>
+ * <p>
+ * Safe for concurrent use, so breaks in worlds ticking on different threads
+ * can be recorded into the same trace.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#recordHarvestTrace
+ */
+public final class HarvestTraceRecorder implements AutoCloseable {
+
+	/** Size of each buffer, enough for about 3000 breaks. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Number of buffers, bounding how far the writer can fall behind. */
+	private static final int BUFFER_COUNT = 8;
+
+	/** Handed to the writer to make it stop. */
+	private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+
+	private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+	private final Path path;
+	private final FileChannel channel;
+	private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+	private final BlockingQueue<ByteBuffer> fullBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+	private final Thread writer;
+
+	/** Raw IDs of the block states and items already written to the palette. */
+	private final BitSet writtenStates = new BitSet();
+	private final BitSet writtenItems = new BitSet();
+
+	/** The buffer being filled, or {@code null} if none was free. */
+	private ByteBuffer current;
+
+	private long recorded;
+	private long dropped;
+
+	private HarvestTraceRecorder(Path path, FileChannel channel) {
+		this.path = path;
+		this.channel = channel;
+
+		for (int i = 0; i < BUFFER_COUNT; i++) {
+			freeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+		}
+
+		this.current = freeBuffers.poll();
+		this.writer = new Thread(this::runWriter, "Auto Replanter Trace Writer");
+		this.writer.setDaemon(true);
+	}
+
+	/**
+	 * Starts recording to a new trace file named after the current time.
+	 *
+	 * @param directory The directory to create the trace in.
+	 * @return The recorder.
+	 * @throws IOException If the trace file cannot be created.
+	 */
+	public static HarvestTraceRecorder start(Path directory) throws IOException {
+		Files.createDirectories(directory);
+
+		Path path = directory.resolve("harvest-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + ".trace");
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		HarvestTraceRecorder recorder = new HarvestTraceRecorder(path, channel);
+
+		recorder.current.putInt(HarvestTrace.MAGIC).putShort(HarvestTrace.VERSION);
+		recorder.writer.start();
+
+		return recorder;
+	}
+
+	/**
+	 * Computes the trace flags of a break.
+	 *
+	 * @param snapshot The configuration snapshot, for the Auto Replanter
+	 *                 enchantment.
+	 * @param player   The player breaking the block.
+	 * @param tool     The player's tool.
+	 * @return The {@link HarvestTrace} flags.
+	 */
+	public static int getFlags(ConfigSnapshot snapshot, PlayerEntity player, ItemStack tool) {
+		int flags = player.isSneaking() ? HarvestTrace.SNEAKING : 0;
+
+		if (tool.hasEnchantments()) {
+			flags |= HarvestTrace.ENCHANTED;
+
+			if (snapshot.autoReplanterEnchantment != null
+					&& EnchantmentHelper.getLevel(snapshot.autoReplanterEnchantment, tool) > 0) {
+				flags |= HarvestTrace.AUTO_REPLANTER;
+			}
+		}
+
+		return flags;
+	}
+
+	/**
+	 * Records a block break, preceded by palette entries for its block state
+	 * and tool if they have not been recorded yet.
+	 *
+	 * @param state    The broken block state.
+	 * @param tool     The tool's item.
+	 * @param flags    The {@link HarvestTrace} flags of the break.
+	 * @param position The position of the block.
+	 * @param tick     The current server tick.
+	 */
+	public synchronized void record(BlockState state, Item tool, int flags, BlockPos position, int tick) {
+		int stateId = Block.getRawIdFromState(state);
+		int itemId = Item.getRawId(tool);
+		byte[] stateName = writtenStates.get(stateId) ? null : encode(BlockArgumentParser.stringifyBlockState(state));
+		byte[] itemName = writtenItems.get(itemId) ? null : encode(Registries.ITEM.getId(tool).toString());
+		int size = HarvestTrace.BREAK_SIZE + getPaletteSize(stateName) + getPaletteSize(itemName);
+
+		if (!ensureCapacity(size)) {
+			dropped++;
+
+			return;
+		}
+
+		if (stateName != null) {
+			putPaletteEntry(HarvestTrace.BLOCK_STATE, stateId, stateName);
+			writtenStates.set(stateId);
+		}
+
+		if (itemName != null) {
+			putPaletteEntry(HarvestTrace.ITEM, itemId, itemName);
+			writtenItems.set(itemId);
+		}
+
+		current.put(HarvestTrace.BREAK).putInt(stateId).putInt(itemId).put((byte) flags).putLong(position.asLong())
+				.putInt(tick);
+		recorded++;
+	}
+
+	/**
+	 * Hands the breaks recorded so far to the writer. Called once a second.
+	 */
+	public synchronized void flush() {
+		if (current != null && current.position() > 0) {
+			fullBuffers.add(current);
+			current = freeBuffers.poll();
+		}
+	}
+
+	/**
+	 * Writes out everything recorded and closes the trace file.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			flush();
+			fullBuffers.add(CLOSE);
+		}
+
+		try {
+			writer.join();
+			channel.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			System.err.println("Failed to close Auto Replanter harvest trace: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the trace file being written.
+	 *
+	 * @return The path of the trace.
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Gets the number of breaks recorded so far.
+	 *
+	 * @return The number of recorded breaks.
+	 */
+	public synchronized long getRecorded() {
+		return recorded;
+	}
+
+	/**
+	 * Gets the number of breaks dropped because the writer had fallen behind.
+	 *
+	 * @return The number of dropped breaks.
+	 */
+	public synchronized long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Makes sure the current buffer has room for a number of bytes, handing it
+	 * to the writer for a free one if not.
+	 *
+	 * @return {@code false} if no buffer with enough room is free.
+	 */
+	private boolean ensureCapacity(int bytes) {
+		if (current != null && current.remaining() >= bytes) {
+			return true;
+		}
+
+		flush();
+
+		if (current == null) {
+			current = freeBuffers.poll();
+		}
+
+		return current != null && current.remaining() >= bytes;
+	}
+
+	private void putPaletteEntry(byte type, int rawId, byte[] name) {
+		current.put(type).putInt(rawId).putShort((short) name.length).put(name);
+	}
+
+	private static int getPaletteSize(byte[] name) {
+		return name != null ? 1 + Integer.BYTES + Short.BYTES + name.length : 0;
+	}
+
+	private static byte[] encode(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		// Names are written with an unsigned short length
+		return bytes.length <= 0xFFFF ? bytes : Arrays.copyOf(bytes, 0xFFFF);
+	}
+
+	/**
+	 * Writes full buffers to the trace file until closed. Runs on the writer
+	 * thread.
+	 */
+	private void runWriter() {
+		boolean failed = false;
+
+		while (true) {
+			ByteBuffer buffer;
+
+			try {
+				buffer = fullBuffers.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			if (buffer == CLOSE) {
+				return;
+			}
+
+			buffer.flip();
+
+			try {
+				while (!failed && buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			} catch (IOException e) {
+				// Keep recycling buffers, so recording never blocks the server
+				failed = true;
+				System.err.println("Failed to write Auto Replanter harvest trace: " + e.getMessage());
+			}
+
+			buffer.clear();
+			freeBuffers.add(buffer);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram that can be recorded to from any thread.
+ * <p>
+ * Buckets are bounded by a fixed set of microsecond thresholds, so recording a
+ * sample is a short scan and an uncontended {@link LongAdder} increment, with
+ * no allocation.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see ReplantMetrics
+ */
+public final class LatencyHistogram {
+
+	/** Exclusive upper bounds of each bucket in nanoseconds. */
+	private static final long[] BUCKET_BOUNDS_NANOS = {
+			1_000L, 2_000L, 5_000L, 10_000L, 20_000L, 50_000L, 100_000L, 200_000L, 500_000L, 1_000_000L,
+			5_000_000L };
+
+	/** Sample counts per bucket, with a final bucket for anything slower. */
+	private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+
+	/** Sum of all recorded samples in nanoseconds. */
+	private final LongAdder totalNanos = new LongAdder();
+
+	/**
+	 * Constructs an empty histogram.
+	 */
+	public LatencyHistogram() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a single sample.
+	 *
+	 * @param nanos The measured duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		int bucket = 0;
+
+		while (bucket < BUCKET_BOUNDS_NANOS.length && nanos >= BUCKET_BOUNDS_NANOS[bucket]) {
+			bucket++;
+		}
+
+		buckets[bucket].increment();
+		totalNanos.add(nanos);
+	}
+
+	/**
+	 * Gets the number of recorded samples.
+	 *
+	 * @return The sample count.
+	 */
+	public long getCount() {
+		long count = 0;
+
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+
+		return count;
+	}
+
+	/**
+	 * Gets the sum of all recorded samples.
+	 *
+	 * @return The total duration in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	/**
+	 * Formats the non-empty buckets, e.g. {@code "<1us:120 <2us:14 >=5ms:1"}.
+	 *
+	 * @return The formatted bucket counts.
+	 */
+	public String formatBuckets() {
+		StringBuilder builder = new StringBuilder();
+
+		for (int i = 0; i < buckets.length; i++) {
+			long count = buckets[i].sum();
+
+			if (count == 0) {
+				continue;
+			}
+
+			if (!builder.isEmpty()) {
+				builder.append(' ');
+			}
+
+			if (i < BUCKET_BOUNDS_NANOS.length) {
+				builder.append('<').append(formatMicros(BUCKET_BOUNDS_NANOS[i]));
+			} else {
+				builder.append(">=").append(formatMicros(BUCKET_BOUNDS_NANOS[BUCKET_BOUNDS_NANOS.length - 1]));
+			}
+
+			builder.append(':').append(count);
+		}
+
+		return builder.isEmpty() ? "no samples" : builder.toString();
+	}
+
+	/**
+	 * Clears all recorded samples.
+	 */
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+
+		totalNanos.reset();
+	}
+
+	private static String formatMicros(long nanos) {
+		return nanos >= 1_000_000L ? (nanos / 1_000_000L) + "ms" : (nanos / 1_000L) + "us";
+	}
+}
@@ -0,0 +1,75 @@
+package net.jackclarke95.autoreplanter;
+
+/**
+ * Enumeration defining how much work the mod does while the server is under
+ * load.
+ * <p>
+ * Each level does less than the one before it:
+ * </p>
+ * <ul>
+ * <li>{@link #FULL} - Everything as configured</li>
+ * <li>{@link #REDUCED} - No drop consolidation, area harvest or automatic
+ * harvest</li>
+ * <li>{@link #DEFERRED} - As {@link #REDUCED}, and replants are deferred</li>
+ * <li>{@link #VANILLA} - Blocks break as they would without the mod</li>
+ * </ul>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see LoadShedder
+ * @see AutoReplanterConfig#enableLoadShedding
+ */
+public enum LoadLevel {
+    /**
+     * Everything works as configured. Used whenever the server keeps up.
+     */
+    FULL,
+
+    /**
+     * Drops are spawned as they are, and area harvest and automatic harvest are
+     * paused, so each harvest only touches the block that was broken.
+     */
+    REDUCED,
+
+    /**
+     * As {@link #REDUCED}, and the drops and replanting of every harvest are
+     * moved to the deferred replant queue, which works within a fixed budget per
+     * tick.
+     */
+    DEFERRED,
+
+    /**
+     * Auto-replanting is switched off entirely until the server recovers.
+     */
+    VANILLA;
+
+    /**
+     * Creates a copy of a configuration with the features this level switches off
+     * disabled.
+     *
+     * @param config The configuration to reduce. It is not modified.
+     * @return The reduced configuration, or {@code config} itself for
+     *         {@link #FULL}.
+     */
+    public AutoReplanterConfig apply(AutoReplanterConfig config) {
+        if (this == FULL) {
+            return config;
+        }
+
+        AutoReplanterConfig reduced = ConfigManager.copyConfig(config);
+
+        reduced.consolidateDrops = false;
+        reduced.enableAreaHarvest = false;
+        reduced.enableAutoHarvest = false;
+
+        if (compareTo(DEFERRED) >= 0) {
+            reduced.deferReplants = true;
+        }
+
+        if (this == VANILLA) {
+            reduced.enableAutoReplanting = false;
+        }
+
+        return reduced;
+    }
+}
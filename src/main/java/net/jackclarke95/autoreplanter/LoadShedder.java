@@ -0,0 +1,126 @@
+package net.jackclarke95.autoreplanter;
+
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * Moves between {@link LoadLevel}s as the server's tick time changes.
+ * <p>
+ * Updated once at the end of every server tick from the server's average tick
+ * time over the last 100 ticks. The level rises straight to the highest one
+ * whose threshold has been crossed, so the mod backs off as soon as the server
+ * falls behind. It only falls one level at a time, once the tick time has been
+ * below that level's threshold by the configured hysteresis margin and the
+ * level has been held for {@value #MIN_TICKS_AT_LEVEL} ticks, so it does not
+ * flap around a threshold.
+ * </p>
+ * <p>
+ * Updated from the server thread. The current level is a single volatile field,
+ * so reading it from an event handler costs next to nothing.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#enableLoadShedding
+ */
+public final class LoadShedder {
+
+	/** The minimum number of ticks to stay at a level before recovering from it. */
+	private static final int MIN_TICKS_AT_LEVEL = 100;
+
+	private volatile LoadLevel level = LoadLevel.FULL;
+
+	/** The average tick time seen by the last update, in milliseconds. */
+	private volatile float mspt;
+
+	/** The server tick at which the level last changed, shown by the stats command. */
+	private int lastChangeTick;
+
+	/**
+	 * Gets the current load level.
+	 *
+	 * @return The load level.
+	 */
+	public LoadLevel getLevel() {
+		return level;
+	}
+
+	/**
+	 * Gets the server tick at which the level last changed.
+	 *
+	 * @return The tick of the last change, or {@code 0} if it never changed.
+	 */
+	public int getLastChangeTick() {
+		return lastChangeTick;
+	}
+
+	/**
+	 * Gets the average tick time seen by the last update.
+	 *
+	 * @return The average milliseconds per tick.
+	 */
+	public float getMspt() {
+		return mspt;
+	}
+
+	/**
+	 * Updates the load level from the server's recent tick times.
+	 *
+	 * @param server The server.
+	 * @param config The configuration in use.
+	 */
+	public void update(MinecraftServer server, AutoReplanterConfig config) {
+		mspt = server.getAverageTickTime();
+
+		if (!config.enableLoadShedding) {
+			setLevel(LoadLevel.FULL, server.getTicks());
+
+			return;
+		}
+
+		LoadLevel current = level;
+		LoadLevel target = LoadLevel.FULL;
+
+		for (LoadLevel candidate : LoadLevel.values()) {
+			if (candidate != LoadLevel.FULL && mspt >= getThreshold(candidate, config)) {
+				target = candidate;
+			}
+		}
+
+		if (target.compareTo(current) > 0) {
+			setLevel(target, server.getTicks());
+		} else if (current != LoadLevel.FULL && server.getTicks() - lastChangeTick >= MIN_TICKS_AT_LEVEL
+				&& mspt < getThreshold(current, config) - config.loadSheddingHysteresisMspt) {
+			setLevel(LoadLevel.values()[current.ordinal() - 1], server.getTicks());
+		}
+	}
+
+	private void setLevel(LoadLevel newLevel, int tick) {
+		if (level == newLevel) {
+			return;
+		}
+
+		level = newLevel;
+		lastChangeTick = tick;
+	}
+
+	/**
+	 * Gets the tick time at which a level starts.
+	 *
+	 * @param level  A level other than {@link LoadLevel#FULL}.
+	 * @param config The configuration in use.
+	 * @return The threshold in milliseconds per tick.
+	 */
+	private static double getThreshold(LoadLevel level, AutoReplanterConfig config) {
+		switch (level) {
+			case REDUCED:
+				return config.reducedLoadMspt;
+			case DEFERRED:
+				return config.deferredLoadMspt;
+			case VANILLA:
+				return config.vanillaLoadMspt;
+			case FULL:
+			default:
+				return 0;
+		}
+	}
+}
@@ -0,0 +1,365 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Index of the mature crops and custom replacement targets in the loaded
+ * chunks of a world.
+ * <p>
+ * Positions are stored as packed {@code long}s in one set per chunk section,
+ * so finding the mature crops in an area only visits the sections overlapping
+ * it, and takes time proportional to the crops in them rather than the number
+ * of blocks. What counts as mature is decided by the current
+ * {@link ReplantPlanTable}: crops at their maximum age and all custom
+ * replacement targets.
+ * </p>
+ * <p>
+ * The index is kept up to date by a mixin on {@link WorldChunk#setBlockState},
+ * which sees crops being placed, growing and being removed, and by scanning
+ * chunks as they load. It is rebuilt when the replant plans change. Only used
+ * from the thread ticking its world, and by the auto-harvester once every
+ * world has ticked.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+public final class MatureCropIndex {
+
+	/** The replant plans that decide which block states count as mature. */
+	private static volatile ReplantPlanTable replantPlans = ReplantPlanTable.EMPTY;
+
+	/** Incremented whenever {@link #replantPlans} changes. */
+	private static volatile int plansGeneration;
+
+	private final ServerWorld world;
+
+	/** Packed positions of mature crops, by packed chunk section position. */
+	private final Long2ObjectMap<LongSet> sections = new Long2ObjectOpenHashMap<>();
+
+	/** Packed positions of the chunks loaded in the world. */
+	private final LongSet loadedChunks = new LongOpenHashSet();
+
+	/** The plans generation this index was built with. */
+	private int generation = plansGeneration;
+
+	private int size;
+
+	/**
+	 * Constructs an empty index.
+	 *
+	 * @param world The world to index.
+	 */
+	public MatureCropIndex(ServerWorld world) {
+		this.world = world;
+	}
+
+	/**
+	 * Gets the index of a world.
+	 *
+	 * @param world The world.
+	 * @return The world's index.
+	 */
+	public static MatureCropIndex of(ServerWorld world) {
+		return ((Holder) world).autoreplanter$getMatureCropIndex();
+	}
+
+	/**
+	 * Sets the replant plans that decide which block states count as mature.
+	 * Indexes are rebuilt from the loaded chunks before they are next used.
+	 *
+	 * @param plans The current replant plans.
+	 */
+	public static void setReplantPlans(ReplantPlanTable plans) {
+		if (replantPlans != plans) {
+			replantPlans = plans;
+			plansGeneration++;
+		}
+	}
+
+	/**
+	 * Checks whether a block state is a mature crop or custom replacement target.
+	 *
+	 * @param state The block state to check.
+	 * @return {@code true} if the state should be indexed.
+	 */
+	public static boolean isMature(BlockState state) {
+		ReplantPlan plan = replantPlans.get(state);
+
+		return plan != null && plan.mature;
+	}
+
+	/**
+	 * Updates the index after a block has changed.
+	 *
+	 * @param pos      The position of the block.
+	 * @param previous The previous block state.
+	 * @param state    The new block state.
+	 */
+	public void onBlockChanged(BlockPos pos, BlockState previous, BlockState state) {
+		// Stale plans are rebuilt from scratch anyway
+		if (generation != plansGeneration) {
+			return;
+		}
+
+		boolean wasMature = isMature(previous);
+		boolean isMature = isMature(state);
+
+		if (wasMature == isMature) {
+			return;
+		}
+
+		long sectionPos = ChunkSectionPos.toLong(pos);
+
+		if (isMature) {
+			LongSet positions = sections.get(sectionPos);
+
+			if (positions == null) {
+				positions = new LongOpenHashSet();
+				sections.put(sectionPos, positions);
+			}
+
+			if (positions.add(pos.asLong())) {
+				size++;
+			}
+		} else {
+			LongSet positions = sections.get(sectionPos);
+
+			if (positions != null && positions.remove(pos.asLong())) {
+				size--;
+
+				if (positions.isEmpty()) {
+					sections.remove(sectionPos);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Indexes a chunk that has just been loaded.
+	 *
+	 * @param chunk The loaded chunk.
+	 */
+	public void onChunkLoad(WorldChunk chunk) {
+		loadedChunks.add(chunk.getPos().toLong());
+		removeChunk(chunk.getPos());
+
+		if (generation == plansGeneration) {
+			indexChunk(chunk);
+		}
+	}
+
+	/**
+	 * Removes a chunk that is being unloaded from the index.
+	 *
+	 * @param chunk The unloaded chunk.
+	 */
+	public void onChunkUnload(WorldChunk chunk) {
+		loadedChunks.remove(chunk.getPos().toLong());
+		removeChunk(chunk.getPos());
+	}
+
+	/**
+	 * Rebuilds the index from the loaded chunks if the replant plans have
+	 * changed since it was built.
+	 */
+	public void refresh() {
+		if (generation == plansGeneration) {
+			return;
+		}
+
+		generation = plansGeneration;
+		sections.clear();
+		size = 0;
+
+		LongIterator iterator = loadedChunks.iterator();
+
+		while (iterator.hasNext()) {
+			long chunkPos = iterator.nextLong();
+			WorldChunk chunk = world.getChunkManager().getWorldChunk(ChunkPos.getPackedX(chunkPos),
+					ChunkPos.getPackedZ(chunkPos));
+
+			if (chunk != null) {
+				indexChunk(chunk);
+			}
+		}
+	}
+
+	/**
+	 * Collects the mature crops within a cube around a position.
+	 *
+	 * @param center The center of the cube.
+	 * @param radius The distance from the center to each face of the cube.
+	 * @param out    The list to add the packed positions of the crops to.
+	 */
+	public void collectMatureCrops(BlockPos center, int radius, LongList out) {
+		collectMatureCrops(new BlockBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+				center.getX() + radius, center.getY() + radius, center.getZ() + radius), out);
+	}
+
+	/**
+	 * Collects the mature crops within a box.
+	 *
+	 * @param box The box to search, inclusive.
+	 * @param out The list to add the packed positions of the crops to.
+	 */
+	public void collectMatureCrops(BlockBox box, LongList out) {
+		refresh();
+
+		if (sections.isEmpty()) {
+			return;
+		}
+
+		int minSectionX = ChunkSectionPos.getSectionCoord(box.getMinX());
+		int maxSectionX = ChunkSectionPos.getSectionCoord(box.getMaxX());
+		int minSectionY = Math.max(ChunkSectionPos.getSectionCoord(box.getMinY()), world.getBottomSectionCoord());
+		int maxSectionY = Math.min(ChunkSectionPos.getSectionCoord(box.getMaxY()), world.getTopSectionCoord() - 1);
+		int minSectionZ = ChunkSectionPos.getSectionCoord(box.getMinZ());
+		int maxSectionZ = ChunkSectionPos.getSectionCoord(box.getMaxZ());
+
+		for (int sectionX = minSectionX; sectionX <= maxSectionX; sectionX++) {
+			for (int sectionZ = minSectionZ; sectionZ <= maxSectionZ; sectionZ++) {
+				for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+					LongSet positions = sections.get(ChunkSectionPos.asLong(sectionX, sectionY, sectionZ));
+
+					if (positions != null) {
+						collectInBox(positions, box, out);
+					}
+				}
+			}
+		}
+	}
+
+	private static void collectInBox(LongSet positions, BlockBox box, LongList out) {
+		LongIterator iterator = positions.iterator();
+
+		while (iterator.hasNext()) {
+			long pos = iterator.nextLong();
+			int x = BlockPos.unpackLongX(pos);
+			int y = BlockPos.unpackLongY(pos);
+			int z = BlockPos.unpackLongZ(pos);
+
+			if (x >= box.getMinX() && x <= box.getMaxX() && y >= box.getMinY() && y <= box.getMaxY()
+					&& z >= box.getMinZ() && z <= box.getMaxZ()) {
+				out.add(pos);
+			}
+		}
+	}
+
+	/**
+	 * Collects the packed positions of the chunk sections that contain mature
+	 * crops, in ascending order.
+	 *
+	 * @param out The list to add the packed section positions to.
+	 */
+	public void collectSections(LongList out) {
+		refresh();
+
+		long[] sectionPositions = sections.keySet().toLongArray();
+
+		Arrays.sort(sectionPositions);
+		out.addElements(out.size(), sectionPositions);
+	}
+
+	/**
+	 * Collects the mature crops in a chunk section.
+	 *
+	 * @param sectionPos The packed position of the chunk section.
+	 * @param out        The list to add the packed positions of the crops to.
+	 */
+	public void collectMatureCropsInSection(long sectionPos, LongList out) {
+		refresh();
+
+		LongSet positions = sections.get(sectionPos);
+
+		if (positions != null) {
+			out.addAll(positions);
+		}
+	}
+
+	/**
+	 * Gets the number of indexed mature crops.
+	 *
+	 * @return The number of crops.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of chunk sections containing mature crops.
+	 *
+	 * @return The number of sections.
+	 */
+	public int getSectionCount() {
+		return sections.size();
+	}
+
+	/**
+	 * Adds the mature crops in a chunk to the index. Sections whose palette has no
+	 * mature crops are skipped without visiting their blocks.
+	 */
+	private void indexChunk(WorldChunk chunk) {
+		ChunkSection[] chunkSections = chunk.getSectionArray();
+		ChunkPos chunkPos = chunk.getPos();
+
+		for (int i = 0; i < chunkSections.length; i++) {
+			ChunkSection section = chunkSections[i];
+
+			if (section.isEmpty() || !section.hasAny(MatureCropIndex::isMature)) {
+				continue;
+			}
+
+			int sectionY = chunk.sectionIndexToCoord(i);
+			LongSet positions = new LongOpenHashSet();
+
+			for (int y = 0; y < 16; y++) {
+				for (int z = 0; z < 16; z++) {
+					for (int x = 0; x < 16; x++) {
+						if (isMature(section.getBlockState(x, y, z))) {
+							positions.add(BlockPos.asLong(chunkPos.getStartX() + x,
+									ChunkSectionPos.getBlockCoord(sectionY) + y, chunkPos.getStartZ() + z));
+						}
+					}
+				}
+			}
+
+			if (!positions.isEmpty()) {
+				sections.put(ChunkSectionPos.asLong(chunkPos.x, sectionY, chunkPos.z), positions);
+				size += positions.size();
+			}
+		}
+	}
+
+	private void removeChunk(ChunkPos chunkPos) {
+		for (int sectionY = world.getBottomSectionCoord(); sectionY < world.getTopSectionCoord(); sectionY++) {
+			LongSet positions = sections.remove(ChunkSectionPos.asLong(chunkPos.x, sectionY, chunkPos.z));
+
+			if (positions != null) {
+				size -= positions.size();
+			}
+		}
+	}
+
+	/**
+	 * Implemented by {@link ServerWorld} through a mixin to hold its index.
+	 */
+	public interface Holder {
+		MatureCropIndex autoreplanter$getMatureCropIndex();
+	}
+}
@@ -0,0 +1,476 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.serialization.JsonOps;
+
+import net.jackclarke95.autoreplanter.mixin.LootContextBuilderAccessor;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.component.type.ItemEnchantmentsComponent;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.loot.LootTable;
+import net.minecraft.loot.context.LootContext;
+import net.minecraft.loot.context.LootContextParameterSet;
+import net.minecraft.loot.context.LootContextParameters;
+import net.minecraft.loot.context.LootContextTypes;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.util.math.random.RandomSplitter;
+
+/**
+ * Memoizes the drops of harvests whose loot is deterministic.
+ * <p>
+ * Evaluating a block's loot table builds a full loot context and walks every
+ * pool, even though the drops of many harvests never change: an immature crop
+ * usually drops exactly one seed, whatever the tool. The first time a block
+ * state is harvested with a given tool and enchantments, its loot table is
+ * evaluated once with a random source that records whether it was used. If no
+ * randomness was involved, and the loot table only depends on the block state,
+ * the tool and randomness, the drops (minus the replant item) are stored as
+ * templates and copied on later harvests instead of evaluating the loot table.
+ * </p>
+ * <p>
+ * Harvests with a block entity are never cached. The cache must be invalidated
+ * whenever loot tables or tags are reloaded.
+ * </p>
+ * <p>
+ * The cache is shared by all worlds and safe for concurrent use. Cached
+ * templates are never modified, only copied, and two threads classifying the
+ * same harvest at once store equal entries.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#cacheDeterministicDrops
+ */
+public final class ReplantDropCache {
+
+	/** Maximum cached entries before the cache is cleared and rebuilt. */
+	private static final int MAX_ENTRIES = 4096;
+
+	/** Loot conditions whose outcome only depends on the block state, tool and randomness. */
+	private static final Set<String> ALLOWED_CONDITIONS = Set.of("minecraft:block_state_property",
+			"minecraft:match_tool", "minecraft:survives_explosion", "minecraft:inverted", "minecraft:any_of",
+			"minecraft:all_of", "minecraft:random_chance", "minecraft:table_bonus");
+
+	/** Loot functions whose result only depends on the block state, tool and randomness. */
+	private static final Set<String> ALLOWED_FUNCTIONS = Set.of("minecraft:set_count", "minecraft:apply_bonus",
+			"minecraft:explosion_decay", "minecraft:limit_count", "minecraft:copy_state");
+
+	/** Loot table, entry and number provider types that do not depend on anything else. */
+	private static final Set<String> ALLOWED_TYPES = Set.of("minecraft:block", "minecraft:item",
+			"minecraft:alternatives", "minecraft:group", "minecraft:sequence", "minecraft:empty", "minecraft:tag",
+			"minecraft:constant", "minecraft:uniform", "minecraft:binomial");
+
+	/** Marks a harvest whose drops must be evaluated every time. */
+	private static final Entry RANDOM = new Entry(null);
+
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	/** Whether each loot table only depends on the block state, tool and randomness. */
+	private final Map<RegistryKey<LootTable>, Boolean> cacheableTables = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Gets the drops for harvesting a block, minus one of the replant item.
+	 * <p>
+	 * Deterministic drops are copied from the cache, anything else is evaluated
+	 * from the block's loot table as usual.
+	 * </p>
+	 *
+	 * @param state           The block state being harvested.
+	 * @param world           The world where the block is being harvested.
+	 * @param pos             The position of the block.
+	 * @param blockEntity     The block entity at the block's position, if any.
+	 * @param player          The player harvesting the block.
+	 * @param tool            The tool used to harvest the block.
+	 * @param itemToDecrement The item to remove one of from the drops (seed or
+	 *                        replacement).
+	 * @return A new, modifiable list of the drops, without empty stacks.
+	 */
+	public List<ItemStack> getDrops(BlockState state, ServerWorld world, BlockPos pos,
+			@Nullable BlockEntity blockEntity, PlayerEntity player, ItemStack tool, Item itemToDecrement) {
+		if (blockEntity != null) {
+			return evaluateDrops(state, world, pos, blockEntity, player, tool, itemToDecrement);
+		}
+
+		Key key = new Key(state, tool.getItem(), tool.getEnchantments(), itemToDecrement);
+		Entry entry = entries.get(key);
+
+		if (entry == null) {
+			if (entries.size() >= MAX_ENTRIES) {
+				entries.clear();
+			}
+
+			entry = classify(state, world, pos, player, tool, itemToDecrement);
+			entries.put(key, entry);
+		}
+
+		if (entry.templates == null) {
+			misses.increment();
+
+			return evaluateDrops(state, world, pos, null, player, tool, itemToDecrement);
+		}
+
+		hits.increment();
+
+		List<ItemStack> drops = new ArrayList<>(entry.templates.size());
+
+		for (ItemStack template : entry.templates) {
+			drops.add(template.copy());
+		}
+
+		return drops;
+	}
+
+	/**
+	 * Clears the cache. Must be called whenever loot tables or tags are
+	 * reloaded.
+	 */
+	public void invalidate() {
+		entries.clear();
+		cacheableTables.clear();
+	}
+
+	/**
+	 * Gets the number of harvests whose drops were copied from the cache.
+	 *
+	 * @return The number of cache hits.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of harvests whose drops had to be evaluated.
+	 *
+	 * @return The number of cache misses.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the number of cached block state and tool combinations.
+	 *
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Evaluates the drops for harvesting a block from its loot table, minus one
+	 * of the replant item.
+	 *
+	 * @param state           The block state being harvested.
+	 * @param world           The world where the block is being harvested.
+	 * @param pos             The position of the block.
+	 * @param blockEntity     The block entity at the block's position, if any.
+	 * @param player          The player harvesting the block.
+	 * @param tool            The tool used to harvest the block.
+	 * @param itemToDecrement The item to remove one of from the drops.
+	 * @return A new, modifiable list of the drops, without empty stacks.
+	 */
+	public static List<ItemStack> evaluateDrops(BlockState state, ServerWorld world, BlockPos pos,
+			@Nullable BlockEntity blockEntity, PlayerEntity player, ItemStack tool, Item itemToDecrement) {
+		List<ItemStack> drops = new ArrayList<>(Block.getDroppedStacks(state, world, pos, blockEntity, player, tool));
+
+		removeReplantItem(drops, itemToDecrement);
+
+		return drops;
+	}
+
+	/**
+	 * Decrements each stack of the replant item by one to simulate using it for
+	 * replanting, and removes any stacks left empty.
+	 */
+	static void removeReplantItem(List<ItemStack> drops, Item itemToDecrement) {
+		for (ItemStack stack : drops) {
+			if (stack.getItem() == itemToDecrement) {
+				stack.decrement(1);
+			}
+		}
+
+		drops.removeIf(ItemStack::isEmpty);
+	}
+
+	/**
+	 * Works out whether a harvest has deterministic drops, evaluating its loot
+	 * table once with a random source that records whether it is used.
+	 */
+	private Entry classify(BlockState state, ServerWorld world, BlockPos pos, PlayerEntity player, ItemStack tool,
+			Item itemToDecrement) {
+		RegistryKey<LootTable> lootTableKey = state.getBlock().getLootTableKey();
+		LootTable lootTable = world.getServer().getReloadableRegistries().getLootTable(lootTableKey);
+
+		if (!cacheableTables.computeIfAbsent(lootTableKey, key -> isCacheable(world, lootTable))) {
+			return RANDOM;
+		}
+
+		UsageTrackingRandom random = new UsageTrackingRandom(world.getRandom());
+		LootContextParameterSet parameters = new LootContextParameterSet.Builder(world)
+				.add(LootContextParameters.ORIGIN, Vec3d.ofCenter(pos))
+				.add(LootContextParameters.TOOL, tool)
+				.addOptional(LootContextParameters.THIS_ENTITY, player)
+				.add(LootContextParameters.BLOCK_STATE, state)
+				.build(LootContextTypes.BLOCK);
+		LootContext.Builder builder = new LootContext.Builder(parameters);
+		List<ItemStack> tracked = new ArrayList<>();
+
+		((LootContextBuilderAccessor) builder).autoreplanter$setRandom(random);
+		lootTable.generateLoot(builder.build(Optional.empty()), tracked::add);
+
+		if (random.used) {
+			return RANDOM;
+		}
+
+		// Blocks may override how their drops are produced, so only cache drops that
+		// match what the block itself returns
+		List<ItemStack> drops = new ArrayList<>(Block.getDroppedStacks(state, world, pos, null, player, tool));
+
+		if (!ItemStack.stacksEqual(tracked, drops)) {
+			return RANDOM;
+		}
+
+		removeReplantItem(drops, itemToDecrement);
+
+		return new Entry(List.copyOf(drops));
+	}
+
+	/**
+	 * Checks that a loot table only uses conditions, functions and entries that
+	 * depend on nothing but the block state, tool and randomness, so a harvest
+	 * that used no randomness will always produce the same drops.
+	 */
+	private static boolean isCacheable(ServerWorld world, LootTable lootTable) {
+		return LootTable.CODEC.encodeStart(world.getRegistryManager().getOps(JsonOps.INSTANCE), lootTable).result()
+				.map(ReplantDropCache::onlyDependsOnStateAndTool)
+				.orElse(false);
+	}
+
+	private static boolean onlyDependsOnStateAndTool(JsonElement element) {
+		if (element.isJsonArray()) {
+			for (JsonElement child : element.getAsJsonArray()) {
+				if (!onlyDependsOnStateAndTool(child)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		if (!element.isJsonObject()) {
+			return true;
+		}
+
+		JsonObject object = element.getAsJsonObject();
+		String condition = getId(object, "condition");
+
+		if (condition != null) {
+			if (!ALLOWED_CONDITIONS.contains(condition)) {
+				return false;
+			}
+
+			// Block state properties are checked against the harvested state, and may
+			// be called anything, including "type"
+			if (condition.equals("minecraft:block_state_property")) {
+				return true;
+			}
+
+			// The tool is only part of the cache key by item and enchantments
+			if (condition.equals("minecraft:match_tool")) {
+				return onlyMatchesItemAndEnchantments(object.get("predicate"));
+			}
+		}
+
+		String function = getId(object, "function");
+
+		if (function != null && !ALLOWED_FUNCTIONS.contains(function)) {
+			return false;
+		}
+
+		String type = getId(object, "type");
+
+		if (type != null && !ALLOWED_TYPES.contains(type)) {
+			return false;
+		}
+
+		// Bonus rolls scale with the player's luck
+		JsonElement bonusRolls = object.get("bonus_rolls");
+
+		if (bonusRolls != null && !(bonusRolls.isJsonPrimitive() && bonusRolls.getAsDouble() == 0)) {
+			return false;
+		}
+
+		for (Map.Entry<String, JsonElement> child : object.entrySet()) {
+			if (!onlyDependsOnStateAndTool(child.getValue())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean onlyMatchesItemAndEnchantments(@Nullable JsonElement predicate) {
+		if (predicate == null || !predicate.isJsonObject()) {
+			return predicate == null;
+		}
+
+		for (Map.Entry<String, JsonElement> entry : predicate.getAsJsonObject().entrySet()) {
+			if (entry.getKey().equals("predicates")) {
+				if (!entry.getValue().isJsonObject()) {
+					return false;
+				}
+
+				for (String component : entry.getValue().getAsJsonObject().keySet()) {
+					if (!"minecraft:enchantments".equals(normalizeId(component))) {
+						return false;
+					}
+				}
+			} else if (!entry.getKey().equals("items")) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets a namespaced ID from a field of a JSON object, such as a condition or
+	 * function type.
+	 *
+	 * @return The normalized ID, or {@code null} if the field is missing or not a
+	 *         string.
+	 */
+	@Nullable
+	private static String getId(JsonObject object, String field) {
+		JsonElement value = object.get(field);
+
+		return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isString()
+				? normalizeId(value.getAsString())
+				: null;
+	}
+
+	@Nullable
+	private static String normalizeId(String id) {
+		Identifier identifier = Identifier.tryParse(id);
+
+		return identifier != null ? identifier.toString() : null;
+	}
+
+	/**
+	 * Identifies a harvest by everything a cacheable loot table can depend on.
+	 */
+	private record Key(BlockState state, Item tool, ItemEnchantmentsComponent enchantments, Item itemToDecrement) {
+	}
+
+	/**
+	 * The cached drops of a harvest, or {@code null} templates if its drops are
+	 * random.
+	 */
+	private record Entry(@Nullable List<ItemStack> templates) {
+	}
+
+	/**
+	 * Delegates to another random source, recording whether it was used.
+	 */
+	private static final class UsageTrackingRandom implements Random {
+
+		private final Random delegate;
+		private boolean used;
+
+		UsageTrackingRandom(Random delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Random split() {
+			used = true;
+
+			return delegate.split();
+		}
+
+		@Override
+		public RandomSplitter nextSplitter() {
+			used = true;
+
+			return delegate.nextSplitter();
+		}
+
+		@Override
+		public void setSeed(long seed) {
+			used = true;
+			delegate.setSeed(seed);
+		}
+
+		@Override
+		public int nextInt() {
+			used = true;
+
+			return delegate.nextInt();
+		}
+
+		@Override
+		public int nextInt(int bound) {
+			used = true;
+
+			return delegate.nextInt(bound);
+		}
+
+		@Override
+		public long nextLong() {
+			used = true;
+
+			return delegate.nextLong();
+		}
+
+		@Override
+		public boolean nextBoolean() {
+			used = true;
+
+			return delegate.nextBoolean();
+		}
+
+		@Override
+		public float nextFloat() {
+			used = true;
+
+			return delegate.nextFloat();
+		}
+
+		@Override
+		public double nextDouble() {
+			used = true;
+
+			return delegate.nextDouble();
+		}
+
+		@Override
+		public double nextGaussian() {
+			used = true;
+
+			return delegate.nextGaussian();
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package net.jackclarke95.autoreplanter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+
+/**
+ * Java Flight Recorder events for the work done by the mod, so recordings can
+ * attribute tick time to specific crops and players.
+ * <p>
+ * All events are disabled unless enabled by a recording's settings, for
+ * example with the {@code autoreplanter.jfc} profile shipped in the jar. Events
+ * are used with the usual pattern: constructed and begun before the work, and
+ * only filled in and committed if {@link Event#shouldCommit()} returns
+ * {@code true}. Block IDs and player names are only looked up then, so a
+ * disabled event costs nothing but an allocation the JIT removes.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+public final class ReplantFlightEvents {
+
+	private ReplantFlightEvents() {
+	}
+
+	/**
+	 * A break or right-click harvest of a replant candidate seen by the mod's
+	 * handlers, including any area harvest a break started. Other blocks are not
+	 * recorded.
+	 */
+	@Name("AutoReplanter.Harvest")
+	@Label("Harvest")
+	@Category("Auto Replanter")
+	@Description("A break or right-click harvest handled by Auto Replanter, including any area harvest it started")
+	@StackTrace(false)
+	public static final class Harvest extends Event {
+		@Label("Block")
+		public String block;
+
+		@Label("Player")
+		public String player;
+
+		@Label("Result")
+		@Description("events_accepted, or the reason the break was left to vanilla")
+		public String result;
+
+		@Label("Drops")
+		@Description("Items dropped by the harvest")
+		public int drops;
+
+		/** The outcome, only converted to {@link #result} when committed. */
+		transient ReplantMetrics.Counter outcome;
+
+		/**
+		 * Fills in and commits the event, if it is enabled and over its threshold.
+		 *
+		 * @param state  The broken block state.
+		 * @param player The player breaking the block.
+		 */
+		public void commit(BlockState state, PlayerEntity player) {
+			end();
+
+			if (shouldCommit()) {
+				this.block = blockId(state);
+				this.player = playerName(player);
+				this.result = outcome != null ? outcome.getDisplayName() : null;
+				commit();
+			}
+		}
+	}
+
+	/**
+	 * The evaluation of a harvested block's loot.
+	 */
+	@Name("AutoReplanter.LootEval")
+	@Label("Loot Evaluation")
+	@Category("Auto Replanter")
+	@Description("Evaluating the drops of a harvested block, from the drop cache or its loot table")
+	@StackTrace(false)
+	public static final class LootEval extends Event {
+		@Label("Block")
+		public String block;
+
+		@Label("Player")
+		public String player;
+
+		@Label("Drops")
+		@Description("Items dropped, after the replant item was taken")
+		public int drops;
+
+		/**
+		 * Fills in and commits the event, if it is enabled and over its threshold.
+		 *
+		 * @param state  The harvested block state.
+		 * @param player The player harvesting.
+		 * @param drops  The number of items dropped.
+		 */
+		public void commit(BlockState state, PlayerEntity player, int drops) {
+			end();
+
+			if (shouldCommit()) {
+				this.block = blockId(state);
+				this.player = playerName(player);
+				this.drops = drops;
+				commit();
+			}
+		}
+	}
+
+	/**
+	 * A check of whether a player's tool may be used for auto-replanting.
+	 */
+	@Name("AutoReplanter.ToolCheck")
+	@Label("Tool Check")
+	@Category("Auto Replanter")
+	@Description("Checking whether a tool is valid for auto-replanting")
+	@StackTrace(false)
+	public static final class ToolCheck extends Event {
+		@Label("Tool")
+		public String tool;
+
+		@Label("Player")
+		public String player;
+
+		@Label("Valid")
+		public boolean valid;
+
+		/**
+		 * Fills in and commits the event, if it is enabled and over its threshold.
+		 *
+		 * @param tool   The checked tool.
+		 * @param player The player holding the tool.
+		 * @param valid  Whether the tool was valid.
+		 */
+		public void commit(ItemStack tool, PlayerEntity player, boolean valid) {
+			end();
+
+			if (shouldCommit()) {
+				this.tool = Registries.ITEM.getId(tool.getItem()).toString();
+				this.player = playerName(player);
+				this.valid = valid;
+				commit();
+			}
+		}
+	}
+
+	/**
+	 * Setting the replanted block state.
+	 */
+	@Name("AutoReplanter.Replant")
+	@Label("Replant")
+	@Category("Auto Replanter")
+	@Description("Setting a harvested block back to its replanted state")
+	@StackTrace(false)
+	public static final class Replant extends Event {
+		@Label("Block")
+		public String block;
+
+		@Label("Player")
+		public String player;
+
+		/**
+		 * Fills in and commits the event, if it is enabled and over its threshold.
+		 *
+		 * @param state  The harvested block state.
+		 * @param player The player harvesting.
+		 */
+		public void commit(BlockState state, PlayerEntity player) {
+			end();
+
+			if (shouldCommit()) {
+				this.block = blockId(state);
+				this.player = playerName(player);
+				commit();
+			}
+		}
+	}
+
+	/**
+	 * Damaging, or scheduling damage to, a player's tool.
+	 */
+	@Name("AutoReplanter.ToolDamage")
+	@Label("Tool Damage")
+	@Category("Auto Replanter")
+	@Description("Damaging the tool used for a harvest, or adding to its batched damage")
+	@StackTrace(false)
+	public static final class ToolDamage extends Event {
+		@Label("Tool")
+		public String tool;
+
+		@Label("Player")
+		public String player;
+
+		/**
+		 * Fills in and commits the event, if it is enabled and over its threshold.
+		 *
+		 * @param tool   The tool's item, taken before the tool could break.
+		 * @param player The player holding the tool.
+		 */
+		public void commit(Item tool, PlayerEntity player) {
+			end();
+
+			if (shouldCommit()) {
+				this.tool = Registries.ITEM.getId(tool).toString();
+				this.player = playerName(player);
+				commit();
+			}
+		}
+	}
+
+	private static String blockId(BlockState state) {
+		return Registries.BLOCK.getId(state.getBlock()).toString();
+	}
+
+	private static String playerName(PlayerEntity player) {
+		return player.getGameProfile().getName();
+	}
+}
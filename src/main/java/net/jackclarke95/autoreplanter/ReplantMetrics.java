@@ -0,0 +1,120 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime counters and handler latency for one scope (the whole server, a world
+ * or a player).
+ * <p>
+ * Counters are striped {@link LongAdder}s, so recording from the block break
+ * handler is cheap and safe from any thread.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see ReplantStats
+ */
+public final class ReplantMetrics {
+
+	/**
+	 * The events counted by {@link ReplantMetrics}.
+	 */
+	public enum Counter {
+		/** Breaks and right-click harvests of replant candidates seen by the handlers. */
+		EVENTS_SEEN,
+
+		/** Breaks and right-click harvests handled by auto-replanting. */
+		EVENTS_ACCEPTED,
+
+		/** Events rejected because the player's sneak state did not match. */
+		REJECTED_SNEAK,
+
+		/** Events rejected because the player was not holding a valid tool. */
+		REJECTED_TOOL,
+
+		/**
+		 * Breaks of blocks that are not replant candidates. Only counted for the
+		 * whole server, to keep ordinary breaks down to a single increment.
+		 */
+		REJECTED_NON_CROP,
+
+		/** Mature harvests over the player's harvest rate limit. */
+		THROTTLED_MATURE,
+
+		/** Immature harvests over the player's harvest rate limit. */
+		THROTTLED_IMMATURE,
+
+		/** Blocks replanted, including area harvests. */
+		REPLANTS,
+
+		/** Item entities spawned for drops. */
+		DROPS_SPAWNED,
+
+		/** Durability damage applied to tools. */
+		TOOL_DAMAGE;
+
+		/**
+		 * Gets the display name of the counter, e.g. {@code "rejected_sneak"}.
+		 *
+		 * @return The lower case counter name.
+		 */
+		public String getDisplayName() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	private final LongAdder[] counters = new LongAdder[Counter.values().length];
+
+	/** Time spent inside the block break handler on breaks of replant candidates. */
+	private final LatencyHistogram handlerLatency = new LatencyHistogram();
+
+	/**
+	 * Constructs metrics with all counters at zero.
+	 */
+	public ReplantMetrics() {
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Adds to a counter.
+	 *
+	 * @param counter The counter to add to.
+	 * @param amount  The amount to add.
+	 */
+	public void add(Counter counter, long amount) {
+		counters[counter.ordinal()].add(amount);
+	}
+
+	/**
+	 * Gets the current value of a counter.
+	 *
+	 * @param counter The counter to read.
+	 * @return The counter's value.
+	 */
+	public long get(Counter counter) {
+		return counters[counter.ordinal()].sum();
+	}
+
+	/**
+	 * Gets the latency histogram of the block break handler.
+	 *
+	 * @return The handler latency histogram.
+	 */
+	public LatencyHistogram getHandlerLatency() {
+		return handlerLatency;
+	}
+
+	/**
+	 * Resets all counters and the latency histogram.
+	 */
+	public void reset() {
+		for (LongAdder counter : counters) {
+			counter.reset();
+		}
+
+		handlerLatency.reset();
+	}
+}
@@ -0,0 +1,53 @@
+package net.jackclarke95.autoreplanter;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.item.Item;
+
+/**
+ * Precomputed replanting instructions for a single block state.
+ * <p>
+ * Plans are compiled once per registry/tag load by {@link ReplantPlanTable}
+ * so that the block break handler never has to resolve block IDs, probe the
+ * custom replacement rules or compute the age 0 crop state at break time.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see ReplantPlanTable
+ */
+public final class ReplantPlan {
+
+	/** The block state to place after the block has been harvested. */
+	public final BlockState replantState;
+
+	/**
+	 * The item consumed from the drops to pay for the replant, or
+	 * {@link net.minecraft.item.Items#AIR} if nothing is consumed.
+	 */
+	public final Item seedItem;
+
+	/**
+	 * Whether the block state is considered fully grown. Custom replacement
+	 * targets are only mature if their rule requires the highest {@code age}.
+	 * Only mature states are found by area and automatic harvesting.
+	 */
+	public final boolean mature;
+
+	/** Whether harvesting this block state should cost tool durability. */
+	public final boolean damageTool;
+
+	/**
+	 * Constructs a replant plan.
+	 *
+	 * @param replantState The block state to place after harvesting.
+	 * @param seedItem     The item to decrement from the drops.
+	 * @param mature       Whether the harvested state is fully grown.
+	 * @param damageTool   Whether harvesting should cost tool durability.
+	 */
+	public ReplantPlan(BlockState replantState, Item seedItem, boolean mature, boolean damageTool) {
+		this.replantState = replantState;
+		this.seedItem = seedItem;
+		this.mature = mature;
+		this.damageTool = damageTool;
+	}
+}
@@ -0,0 +1,119 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registries;
+
+/**
+ * Lookup table of {@link ReplantPlan}s indexed by raw block state ID.
+ * <p>
+ * The table is compiled from the configuration whenever registries and tags are
+ * (re)loaded. Resolving the plan for a broken block is then a single array
+ * read, and blocks that are not replant candidates are rejected without any
+ * allocation.
+ * </p>
+ * <p>
+ * How each block is replanted is decided by {@link ReplantStrategy replant
+ * strategies}. Crop blocks take precedence over custom block replacements,
+ * matching the documented behaviour of the mod, and both over the other
+ * strategies. Custom replacement targets may be tags, namespace wildcards and
+ * block state predicates (see {@link BlockTarget}). All of these are expanded
+ * to the individual block states they match here, so the number and kind of
+ * strategies and rules has no effect on the cost of a lookup.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see ReplantPlan
+ */
+public final class ReplantPlanTable {
+
+	/** A table with no plans, used before the first registry load. */
+	public static final ReplantPlanTable EMPTY = new ReplantPlanTable(new ReplantPlan[0]);
+
+	/** Plans indexed by {@link Block#getRawIdFromState(BlockState)}. */
+	private final ReplantPlan[] plans;
+
+	private ReplantPlanTable(ReplantPlan[] plans) {
+		this.plans = plans;
+	}
+
+	/**
+	 * Gets the replant plan for the given block state.
+	 *
+	 * @param state The block state being broken.
+	 * @return The plan for the state, or {@code null} if the state should not be
+	 *         auto-replanted.
+	 */
+	@Nullable
+	public ReplantPlan get(BlockState state) {
+		int rawId = Block.getRawIdFromState(state);
+
+		return rawId >= 0 && rawId < plans.length ? plans[rawId] : null;
+	}
+
+	/**
+	 * Compiles a plan table for every registered block state.
+	 * <p>
+	 * The strategies that apply to each block are resolved once, and each of the
+	 * block's states gets the plan of the first strategy that has one: crops,
+	 * then custom block replacements, then the strategies registered with
+	 * {@link ReplantStrategies}. Tags must be loaded.
+	 * </p>
+	 *
+	 * @param config The configuration to compile.
+	 * @return The compiled table.
+	 */
+	public static ReplantPlanTable compile(AutoReplanterConfig config) {
+		List<ReplantStrategy> strategies = new ArrayList<>();
+
+		strategies.add(ReplantStrategies.CROPS);
+
+		if (config.useCustomBlockReplacements) {
+			strategies.add(CustomReplacementStrategy.compile(config.customBlockReplacements));
+		}
+
+		strategies.addAll(ReplantStrategies.getRegistered());
+
+		ReplantPlan[] plans = new ReplantPlan[Block.STATE_IDS.size()];
+		List<ReplantStrategy> applicable = new ArrayList<>();
+
+		for (Block block : Registries.BLOCK) {
+			applicable.clear();
+
+			for (ReplantStrategy strategy : strategies) {
+				if (strategy.appliesTo(block)) {
+					applicable.add(strategy);
+				}
+			}
+
+			if (applicable.isEmpty()) {
+				continue;
+			}
+
+			for (BlockState state : block.getStateManager().getStates()) {
+				plans[Block.getRawIdFromState(state)] = createPlan(applicable, state);
+			}
+		}
+
+		return new ReplantPlanTable(plans);
+	}
+
+	@Nullable
+	private static ReplantPlan createPlan(List<ReplantStrategy> strategies, BlockState state) {
+		for (ReplantStrategy strategy : strategies) {
+			ReplantPlan plan = strategy.createPlan(state);
+
+			if (plan != null) {
+				return plan;
+			}
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,50 @@
+package net.jackclarke95.autoreplanter;
+
+import com.google.gson.Gson;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+/**
+ * Sends the server's configuration to clients, so they can predict replants
+ * using the same rules.
+ * <p>
+ * Sent when a player joins and whenever the configuration is reloaded. Clients
+ * compile the configuration into a {@link ConfigSnapshot} against their own
+ * synced registries and tags, exactly as the server does.
+ * </p>
+ *
+ * @param config The server's configuration.
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+public record ReplantRulesPayload(AutoReplanterConfig config) implements CustomPayload {
+
+	/** The payload ID. */
+	public static final CustomPayload.Id<ReplantRulesPayload> ID = new CustomPayload.Id<>(
+			Identifier.of("autoreplanter", "replant_rules"));
+
+	/** Maximum length of the serialized configuration. */
+	private static final int MAX_LENGTH = 262144;
+
+	private static final Gson GSON = new Gson();
+
+	/** Encodes the configuration as JSON, as in the config file. */
+	public static final PacketCodec<RegistryByteBuf, ReplantRulesPayload> CODEC = PacketCodecs.string(MAX_LENGTH)
+			.<RegistryByteBuf>cast()
+			.xmap(json -> {
+				AutoReplanterConfig config = GSON.fromJson(json, AutoReplanterConfig.class);
+
+				ConfigManager.validateConfig(config);
+
+				return new ReplantRulesPayload(config);
+			}, payload -> GSON.toJson(payload.config()));
+
+	@Override
+	public CustomPayload.Id<ReplantRulesPayload> getId() {
+		return ID;
+	}
+}
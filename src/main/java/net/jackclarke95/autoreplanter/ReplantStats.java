@@ -0,0 +1,158 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Runtime statistics for the Auto Replanter mod, kept for the whole server, per
+ * world and per player.
+ * <p>
+ * Every recorded event is added to the global, world and player
+ * {@link ReplantMetrics}. The statistics can be viewed and reset with the
+ * {@code /autoreplanter stats} command.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterCommand
+ */
+public final class ReplantStats {
+
+	private final ReplantMetrics global = new ReplantMetrics();
+	private final Map<RegistryKey<World>, ReplantMetrics> worlds = new ConcurrentHashMap<>();
+	private final Map<UUID, ReplantMetrics> players = new ConcurrentHashMap<>();
+	private final Map<UUID, String> playerNames = new ConcurrentHashMap<>();
+
+	/** Server ticks since the statistics were last reset. */
+	private final LongAdder ticks = new LongAdder();
+
+	/** When the statistics were last reset, from {@link System#nanoTime()}. */
+	private volatile long resetTimeNanos = System.nanoTime();
+
+	/**
+	 * Adds to a counter for the given world and player.
+	 *
+	 * @param world   The world the event happened in.
+	 * @param player  The player who caused the event.
+	 * @param counter The counter to add to.
+	 * @param amount  The amount to add.
+	 */
+	public void record(World world, PlayerEntity player, ReplantMetrics.Counter counter, long amount) {
+		global.add(counter, amount);
+		getWorldMetrics(world).add(counter, amount);
+		getPlayerMetrics(player).add(counter, amount);
+	}
+
+	/**
+	 * Counts the break of a block that is not a replant candidate. Only the
+	 * global counter is updated, as most breaks on a server are of such blocks.
+	 */
+	public void recordNonCandidate() {
+		global.add(ReplantMetrics.Counter.REJECTED_NON_CROP, 1);
+	}
+
+	/**
+	 * Records the time spent handling the break of one replant candidate.
+	 *
+	 * @param world  The world the event happened in.
+	 * @param player The player who broke the block.
+	 * @param nanos  The time spent in the handler, in nanoseconds.
+	 */
+	public void recordHandlerTime(World world, PlayerEntity player, long nanos) {
+		global.getHandlerLatency().record(nanos);
+		getWorldMetrics(world).getHandlerLatency().record(nanos);
+		getPlayerMetrics(player).getHandlerLatency().record(nanos);
+	}
+
+	/**
+	 * Counts a server tick, used to report the handler time per tick.
+	 */
+	public void onServerTick() {
+		ticks.increment();
+	}
+
+	/**
+	 * Resets all statistics.
+	 */
+	public void reset() {
+		global.reset();
+		worlds.clear();
+		players.clear();
+		playerNames.clear();
+		ticks.reset();
+		resetTimeNanos = System.nanoTime();
+	}
+
+	/**
+	 * Gets the statistics for the whole server.
+	 *
+	 * @return The global metrics.
+	 */
+	public ReplantMetrics getGlobal() {
+		return global;
+	}
+
+	/**
+	 * Gets the statistics per world.
+	 *
+	 * @return A live view of the metrics keyed by world.
+	 */
+	public Map<RegistryKey<World>, ReplantMetrics> getWorlds() {
+		return worlds;
+	}
+
+	/**
+	 * Gets the statistics per player.
+	 *
+	 * @return A live view of the metrics keyed by player UUID.
+	 */
+	public Map<UUID, ReplantMetrics> getPlayers() {
+		return players;
+	}
+
+	/**
+	 * Gets the name a player had when they were first recorded.
+	 *
+	 * @param uuid The player's UUID.
+	 * @return The player's name, or the UUID if unknown.
+	 */
+	public String getPlayerName(UUID uuid) {
+		return playerNames.getOrDefault(uuid, uuid.toString());
+	}
+
+	/**
+	 * Gets the number of server ticks since the statistics were last reset.
+	 *
+	 * @return The tick count.
+	 */
+	public long getTicks() {
+		return ticks.sum();
+	}
+
+	/**
+	 * Gets the time elapsed since the statistics were last reset.
+	 *
+	 * @return The elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return System.nanoTime() - resetTimeNanos;
+	}
+
+	private ReplantMetrics getWorldMetrics(World world) {
+		return worlds.computeIfAbsent(world.getRegistryKey(), key -> new ReplantMetrics());
+	}
+
+	private ReplantMetrics getPlayerMetrics(PlayerEntity player) {
+		return players.computeIfAbsent(player.getUuid(), uuid -> {
+			playerNames.put(uuid, player.getGameProfile().getName());
+
+			return new ReplantMetrics();
+		});
+	}
+}
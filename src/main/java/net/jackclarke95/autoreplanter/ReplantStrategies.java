@@ -0,0 +1,188 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.CaveVines;
+import net.minecraft.block.CocoaBlock;
+import net.minecraft.block.CropBlock;
+import net.minecraft.block.NetherWartBlock;
+import net.minecraft.block.SweetBerryBushBlock;
+import net.minecraft.item.Items;
+import net.minecraft.state.property.IntProperty;
+import net.minecraft.util.Identifier;
+
+/**
+ * The built-in {@link ReplantStrategy replant strategies} and the registry of
+ * additional ones.
+ * <p>
+ * When compiling the {@link ReplantPlanTable}, {@link #CROPS} is tried first,
+ * then the configured custom block replacements, then the registered
+ * strategies in the order they were registered. The first strategy to return
+ * a plan for a block state wins.
+ * </p>
+ * <p>
+ * Strategies should be registered while mods initialize. Strategies registered
+ * later only take effect the next time data packs are reloaded.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+public final class ReplantStrategies {
+
+	/** Name of the {@link ReplantStrategyInitializer} entrypoint. */
+	public static final String ENTRYPOINT = "auto-replanter:replant_strategies";
+
+	/**
+	 * Crops extending {@link CropBlock}, replanted at age 0. Tools are only
+	 * damaged by mature crops.
+	 */
+	public static final ReplantStrategy CROPS = new ReplantStrategy() {
+		@Override
+		public boolean appliesTo(Block block) {
+			return block instanceof CropBlock;
+		}
+
+		@Override
+		public ReplantPlan createPlan(BlockState state) {
+			CropBlock cropBlock = (CropBlock) state.getBlock();
+			boolean mature = cropBlock.getAge(state) == cropBlock.getMaxAge();
+
+			return new ReplantPlan(cropBlock.withAge(0), cropBlock.asItem(), mature, mature);
+		}
+	};
+
+	/** Nether wart, replanted at age 0. */
+	public static final ReplantStrategy NETHER_WART = agePlant(NetherWartBlock.class, NetherWartBlock.AGE);
+
+	/** Cocoa, replanted at age 0 facing the same way. */
+	public static final ReplantStrategy COCOA = agePlant(CocoaBlock.class, CocoaBlock.AGE);
+
+	/**
+	 * Sweet berry bushes with berries, which are picked back to age 1 without
+	 * removing the bush.
+	 */
+	public static final ReplantStrategy SWEET_BERRIES = partialHarvest(SweetBerryBushBlock.class,
+			state -> state.get(SweetBerryBushBlock.AGE) > 1,
+			state -> state.with(SweetBerryBushBlock.AGE, 1),
+			state -> state.get(SweetBerryBushBlock.AGE) == SweetBerryBushBlock.MAX_AGE);
+
+	/** Cave vines with glow berries, which are picked without removing the vine. */
+	public static final ReplantStrategy GLOW_BERRIES = partialHarvest(CaveVines.class, CaveVines::hasBerries,
+			state -> state.with(CaveVines.BERRIES, false), state -> true);
+
+	private static final Map<Identifier, ReplantStrategy> REGISTERED = new LinkedHashMap<>();
+
+	static {
+		register(Identifier.of("autoreplanter", "nether_wart"), NETHER_WART);
+		register(Identifier.of("autoreplanter", "cocoa"), COCOA);
+		register(Identifier.of("autoreplanter", "sweet_berries"), SWEET_BERRIES);
+		register(Identifier.of("autoreplanter", "glow_berries"), GLOW_BERRIES);
+	}
+
+	private ReplantStrategies() {
+	}
+
+	/**
+	 * Registers a strategy, to be tried after the built-in ones.
+	 *
+	 * @param id       A unique ID for the strategy.
+	 * @param strategy The strategy.
+	 * @throws IllegalArgumentException If a strategy is already registered with
+	 *                                  the ID.
+	 */
+	public static synchronized void register(Identifier id, ReplantStrategy strategy) {
+		if (REGISTERED.putIfAbsent(id, strategy) != null) {
+			throw new IllegalArgumentException("Replant strategy already registered: " + id);
+		}
+	}
+
+	/**
+	 * Gets the registered strategies, in registration order.
+	 *
+	 * @return An immutable copy of the registered strategies.
+	 */
+	public static synchronized List<ReplantStrategy> getRegistered() {
+		return List.copyOf(REGISTERED.values());
+	}
+
+	/**
+	 * Calls every {@link ReplantStrategyInitializer} entrypoint.
+	 */
+	static void runEntrypoints() {
+		for (ReplantStrategyInitializer initializer : FabricLoader.getInstance().getEntrypoints(ENTRYPOINT,
+				ReplantStrategyInitializer.class)) {
+			initializer.registerStrategies();
+		}
+	}
+
+	/**
+	 * Creates a strategy for plants with an age property that are replanted at
+	 * their lowest age. Other properties, such as facing, are kept. Only mature
+	 * plants cost tool durability.
+	 *
+	 * @param blockClass The class or interface of the plant blocks.
+	 * @param age        The age property.
+	 * @return The strategy.
+	 */
+	public static ReplantStrategy agePlant(Class<?> blockClass, IntProperty age) {
+		int minAge = Collections.min(age.getValues());
+		int maxAge = Collections.max(age.getValues());
+
+		return new ReplantStrategy() {
+			@Override
+			public boolean appliesTo(Block block) {
+				return blockClass.isInstance(block);
+			}
+
+			@Override
+			public ReplantPlan createPlan(BlockState state) {
+				boolean mature = state.get(age) == maxAge;
+
+				return new ReplantPlan(state.with(age, minAge), state.getBlock().asItem(), mature, mature);
+			}
+		};
+	}
+
+	/**
+	 * Creates a strategy for plants whose produce is picked off without removing
+	 * the plant. Nothing is consumed from the drops, and states with nothing to
+	 * pick are left to vanilla.
+	 *
+	 * @param blockClass  The class or interface of the plant blocks.
+	 * @param harvestable Whether a state has produce to pick.
+	 * @param harvested   The state a plant is left in once picked.
+	 * @param mature      Whether a harvestable state is fully grown, and should be
+	 *                    found by area and automatic harvesting.
+	 * @return The strategy.
+	 */
+	public static ReplantStrategy partialHarvest(Class<?> blockClass, Predicate<BlockState> harvestable,
+			UnaryOperator<BlockState> harvested, Predicate<BlockState> mature) {
+		return new ReplantStrategy() {
+			@Override
+			public boolean appliesTo(Block block) {
+				return blockClass.isInstance(block);
+			}
+
+			@Override
+			@Nullable
+			public ReplantPlan createPlan(BlockState state) {
+				if (!harvestable.test(state)) {
+					return null;
+				}
+
+				return new ReplantPlan(harvested.apply(state), Items.AIR, mature.test(state), true);
+			}
+		};
+	}
+}
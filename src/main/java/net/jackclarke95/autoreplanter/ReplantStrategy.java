@@ -0,0 +1,46 @@
+package net.jackclarke95.autoreplanter;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+
+/**
+ * Describes how a kind of plant is harvested and replanted.
+ * <p>
+ * Strategies are only consulted while compiling the {@link ReplantPlanTable}:
+ * {@link #appliesTo(Block)} is called once per registered block, and
+ * {@link #createPlan(BlockState)} once per state of each block it applies to.
+ * The resulting plans are looked up by block state when a block is broken, so
+ * strategies may do as much work as they like.
+ * </p>
+ * <p>
+ * Other mods can add strategies with {@link ReplantStrategies#register}, for
+ * example from a {@link ReplantStrategyInitializer} entrypoint.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see ReplantStrategies
+ */
+public interface ReplantStrategy {
+
+	/**
+	 * Checks whether this strategy may handle a block.
+	 *
+	 * @param block The block.
+	 * @return {@code true} if {@link #createPlan} should be called for the
+	 *         block's states.
+	 */
+	boolean appliesTo(Block block);
+
+	/**
+	 * Creates the replant plan for a block state.
+	 *
+	 * @param state A state of a block this strategy applies to.
+	 * @return The plan, or {@code null} to leave the state to later strategies,
+	 *         or to vanilla if none handles it.
+	 */
+	@Nullable
+	ReplantPlan createPlan(BlockState state);
+}
@@ -0,0 +1,21 @@
+package net.jackclarke95.autoreplanter;
+
+/**
+ * Entrypoint for mods that add {@link ReplantStrategy replant strategies}.
+ * <p>
+ * Declare an implementation under the {@value ReplantStrategies#ENTRYPOINT}
+ * entrypoint in {@code fabric.mod.json}. It is called once while Auto
+ * Replanter initializes, before any replant plans are compiled.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+@FunctionalInterface
+public interface ReplantStrategyInitializer {
+
+	/**
+	 * Registers strategies with {@link ReplantStrategies#register}.
+	 */
+	void registerStrategies();
+}
@@ -45,5 +45,25 @@ public enum SneakMode {
      * (for example, when relocating your farm).
      * </p>
      */
-    ONLY_STANDING
+    ONLY_STANDING;
+
+    /**
+     * Checks whether auto-replanting is allowed for the given sneak state.
+     *
+     * @param sneaking Whether the player is sneaking.
+     * @return {@code true} if the sneak state matches this mode, {@code false}
+     *         otherwise.
+     */
+    public boolean permits(boolean sneaking) {
+        switch (this) {
+            case ONLY_SNEAKING:
+                return sneaking;
+            case ONLY_STANDING:
+                return !sneaking;
+            case ALWAYS:
+            default:
+                // No sneak restriction
+                return true;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package net.jackclarke95.autoreplanter;
+
+/**
+ * Enumeration defining what happens to a harvest when the player has exceeded
+ * the harvest rate limit.
+ * <p>
+ * This enum provides two different modes:
+ * </p>
+ * <ul>
+ * <li>{@link #VANILLA} - The block breaks as it would without the mod</li>
+ * <li>{@link #DEFER} - The block is broken and its replant is queued</li>
+ * </ul>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#throttleMode
+ * @see HarvestRateLimiter
+ */
+public enum ThrottleMode {
+    /**
+     * Throttled harvests are left to vanilla, so the block breaks normally and
+     * is not replanted.
+     * <p>
+     * This is the default behavior and costs the server nothing extra.
+     * </p>
+     */
+    VANILLA,
+
+    /**
+     * Throttled harvests break the block immediately, but their drops and
+     * replanting are added to the world's deferred replant queue, which is
+     * processed within {@link AutoReplanterConfig#deferredReplantBudgetMicros}
+     * per tick.
+     * <p>
+     * Crops are still replanted, just later, so players lose nothing by farming
+     * quickly.
+     * </p>
+     */
+    DEFER
+}
@@ -0,0 +1,101 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import net.minecraft.entity.EquipmentSlot;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.ItemStack;
+
+/**
+ * Collects tool durability damage per player and applies it in one call at the
+ * end of the tick.
+ * <p>
+ * Every {@link ItemStack#damage(int, net.minecraft.entity.LivingEntity, EquipmentSlot)}
+ * call rolls Unbreaking, updates the stack's components and triggers an
+ * equipment update. Applying the damage of all harvests in a tick at once does
+ * this work once per player instead of once per block. Vanilla rolls Unbreaking
+ * separately for each point of damage passed in, so the total damage follows
+ * the same binomial distribution as damaging the tool block by block.
+ * </p>
+ * <p>
+ * If the pending damage could break the tool, it is applied straight away, so
+ * a tool still breaks on the same harvest as it would without batching. Each
+ * world has its own accumulator (see {@link WorldReplantState}), only used from
+ * the thread ticking that world.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#batchToolDamage
+ */
+public final class ToolDamageAccumulator {
+
+	private final Map<UUID, PendingDamage> pending = new HashMap<>();
+
+	/**
+	 * Adds damage to a player's tool, to be applied at the end of the tick.
+	 *
+	 * @param player The player using the tool.
+	 * @param tool   The tool to damage.
+	 * @param amount The damage to add, before Unbreaking.
+	 */
+	public void add(PlayerEntity player, ItemStack tool, int amount) {
+		UUID uuid = player.getUuid();
+		PendingDamage damage = pending.get(uuid);
+
+		// The player switched tools during the tick, so settle the previous one first
+		if (damage != null && damage.tool != tool) {
+			pending.remove(uuid).apply();
+			damage = null;
+		}
+
+		if (damage == null) {
+			damage = new PendingDamage(player, tool);
+			pending.put(uuid, damage);
+		}
+
+		damage.amount += amount;
+
+		// Without Unbreaking, this much damage would break the tool now
+		if (tool.getDamage() + damage.amount >= tool.getMaxDamage()) {
+			pending.remove(uuid).apply();
+		}
+	}
+
+	/**
+	 * Applies and clears all pending damage.
+	 */
+	public void flush() {
+		if (pending.isEmpty()) {
+			return;
+		}
+
+		for (PendingDamage damage : pending.values()) {
+			damage.apply();
+		}
+
+		pending.clear();
+	}
+
+	/**
+	 * Damage waiting to be applied to one player's tool.
+	 */
+	private static final class PendingDamage {
+		private final PlayerEntity player;
+		private final ItemStack tool;
+		private int amount;
+
+		PendingDamage(PlayerEntity player, ItemStack tool) {
+			this.player = player;
+			this.tool = tool;
+		}
+
+		void apply() {
+			if (!tool.isEmpty() && amount > 0) {
+				tool.damage(amount, player, EquipmentSlot.MAINHAND);
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+
+/**
+ * Precomputed tool validity for every registered item, indexed by raw item ID.
+ * <p>
+ * The {@link AutoReplanterConfig#validToolTags} and
+ * {@link AutoReplanterConfig#validTools} criteria only change when the
+ * configuration or data packs are reloaded, so they are evaluated once per tag
+ * load into a bit set. Only the per-stack enchantment check remains to be done
+ * at break time.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#useValidToolTags
+ * @see AutoReplanterConfig#useValidTools
+ */
+public final class ToolValidityTable {
+
+	/** A table in which no item is valid, used before the first tag load. */
+	public static final ToolValidityTable EMPTY = new ToolValidityTable(new BitSet());
+
+	/** Set bits mark the raw item IDs of valid tools. */
+	private final BitSet validItems;
+
+	private ToolValidityTable(BitSet validItems) {
+		this.validItems = validItems;
+	}
+
+	/**
+	 * Checks if the given item matches the configured tool tags or tool IDs.
+	 *
+	 * @param item The item to check.
+	 * @return {@code true} if the item is a valid tool by tag or ID,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isValid(Item item) {
+		return validItems.get(Registries.ITEM.getRawId(item));
+	}
+
+	/**
+	 * Compiles the tool validity table for every registered item.
+	 * <p>
+	 * Must be called after tags have been bound, as tag membership is resolved
+	 * eagerly.
+	 * </p>
+	 *
+	 * @param config The configuration to compile.
+	 * @return The compiled table.
+	 */
+	public static ToolValidityTable compile(AutoReplanterConfig config) {
+		List<TagKey<Item>> validToolTags = config.useValidToolTags
+				? config.validToolTags.stream().map(ToolValidityTable::parseTagString).distinct().toList()
+				: List.of();
+
+		Set<Identifier> validToolIds = config.useValidTools
+				? config.validTools.stream().map(Identifier::tryParse).filter(id -> id != null)
+						.collect(Collectors.toSet())
+				: Set.of();
+
+		BitSet validItems = new BitSet(Registries.ITEM.size());
+
+		for (Item item : Registries.ITEM) {
+			RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
+			boolean valid = validToolIds.contains(Registries.ITEM.getId(item));
+
+			for (int i = 0; !valid && i < validToolTags.size(); i++) {
+				valid = entry.isIn(validToolTags.get(i));
+			}
+
+			if (valid) {
+				validItems.set(Registries.ITEM.getRawId(item));
+			}
+		}
+
+		return new ToolValidityTable(validItems);
+	}
+
+	/**
+	 * Parses a string representation of an item tag into a TagKey object.
+	 * <p>
+	 * Supports both simple tags ("namespace:path") and complex tags with categories
+	 * ("namespace:category/subcategory").
+	 * </p>
+	 *
+	 * @param tagString The string representation of the tag (e.g., "minecraft:hoes"
+	 *                  or "farmersdelight:tools/knives").
+	 * @return A TagKey object representing the parsed tag.
+	 * @throws IllegalArgumentException if the tag string format is invalid.
+	 */
+	private static TagKey<Item> parseTagString(String tagString) {
+		String[] parts = tagString.split(":");
+		if (parts.length == 2) {
+			return TagKey.of(RegistryKeys.ITEM, Identifier.of(parts[0], parts[1]));
+		} else {
+			// Handle tags with more colons (e.g., "namespace:category/subcategory")
+			int firstColon = tagString.indexOf(':');
+			String namespace = tagString.substring(0, firstColon);
+			String path = tagString.substring(firstColon + 1);
+
+			return TagKey.of(RegistryKeys.ITEM, Identifier.of(namespace, path));
+		}
+	}
+}
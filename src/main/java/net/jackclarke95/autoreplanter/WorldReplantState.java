@@ -0,0 +1,125 @@
+package net.jackclarke95.autoreplanter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+
+/**
+ * The mutable state of the harvests in one world: drops consolidated until the
+ * end of the tick, deferred replants, batched tool damage and harvest rate
+ * limits.
+ * <p>
+ * Each {@link ServerWorld} holds its own instance, so servers that tick
+ * dimensions on separate threads never share it between threads. Everything
+ * else the harvest handlers read is either an immutable {@link ConfigSnapshot}
+ * published with a single volatile write, or safe for concurrent use, like
+ * {@link ReplantStats} and {@link ReplantDropCache}. An instance must only be
+ * used from the thread ticking its world.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+public final class WorldReplantState {
+
+	/**
+	 * Drops consolidated per player until the end of the current tick. Keyed by
+	 * player entity rather than UUID, as fake players share a UUID across worlds.
+	 */
+	private final Map<PlayerEntity, DropPool> pendingDrops = new HashMap<>();
+
+	/** Deferred drops and replanting. */
+	private final DeferredReplantQueue deferredReplants = new DeferredReplantQueue();
+
+	/** Tool damage collected per player until the end of the current tick. */
+	private final ToolDamageAccumulator toolDamage = new ToolDamageAccumulator();
+
+	/** Per-player harvest rate limits, used when enabled. */
+	private final HarvestRateLimiter rateLimiter = new HarvestRateLimiter();
+
+	private final ServerWorld world;
+
+	/**
+	 * Constructs the empty state of a world.
+	 *
+	 * @param world The world the state belongs to.
+	 */
+	public WorldReplantState(ServerWorld world) {
+		this.world = world;
+	}
+
+	/**
+	 * Gets the state of a world.
+	 *
+	 * @param world The world.
+	 * @return The world's state.
+	 */
+	public static WorldReplantState of(ServerWorld world) {
+		return ((Holder) world).autoreplanter$getReplantState();
+	}
+
+	/**
+	 * Gets the pool a player's drops are consolidated into until the end of the
+	 * tick, creating it if needed.
+	 *
+	 * @param player The player harvesting.
+	 * @return The player's pool.
+	 */
+	public DropPool getPendingDrops(PlayerEntity player) {
+		return pendingDrops.computeIfAbsent(player, key -> new DropPool(world, player));
+	}
+
+	/**
+	 * Passes every pool of consolidated drops to an action, then forgets them.
+	 *
+	 * @param action The action to spawn each pool with.
+	 */
+	public void drainPendingDrops(Consumer<DropPool> action) {
+		if (pendingDrops.isEmpty()) {
+			return;
+		}
+
+		for (DropPool drops : pendingDrops.values()) {
+			action.accept(drops);
+		}
+
+		pendingDrops.clear();
+	}
+
+	/**
+	 * Gets the queue of deferred replants.
+	 *
+	 * @return The world's queue.
+	 */
+	public DeferredReplantQueue getDeferredReplants() {
+		return deferredReplants;
+	}
+
+	/**
+	 * Gets the tool damage batched until the end of the tick.
+	 *
+	 * @return The world's accumulator.
+	 */
+	public ToolDamageAccumulator getToolDamage() {
+		return toolDamage;
+	}
+
+	/**
+	 * Gets the harvest rate limits of the players in the world.
+	 *
+	 * @return The world's rate limiter.
+	 */
+	public HarvestRateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	/**
+	 * Implemented by {@link ServerWorld} through a mixin to hold its state.
+	 */
+	public interface Holder {
+		WorldReplantState autoreplanter$getReplantState();
+	}
+}
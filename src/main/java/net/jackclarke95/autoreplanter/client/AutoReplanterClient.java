@@ -0,0 +1,175 @@
+package net.jackclarke95.autoreplanter.client;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.event.client.player.ClientPlayerBlockBreakEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.fabricmc.fabric.api.event.player.UseBlockCallback;
+import net.jackclarke95.autoreplanter.AutoReplanter;
+import net.jackclarke95.autoreplanter.AutoReplanterConfig;
+import net.jackclarke95.autoreplanter.ConfigManager;
+import net.jackclarke95.autoreplanter.ConfigSnapshot;
+import net.jackclarke95.autoreplanter.ReplantPlan;
+import net.jackclarke95.autoreplanter.ReplantRulesPayload;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.CropBlock;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.Hand;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Client entrypoint that predicts replants before the server confirms them.
+ * <p>
+ * When joining a server running the mod, the server sends its configuration in
+ * a {@link ReplantRulesPayload}. It is compiled into a {@link ConfigSnapshot}
+ * against the client's synced registries and tags, exactly as on the server,
+ * and recompiled whenever the server reloads it or the tags change.
+ * </p>
+ * <p>
+ * When the player breaks a crop the server will replant, the age 0 crop is set
+ * client-side straight away. The prediction is made while the client is
+ * waiting for the server to acknowledge the break, so vanilla's block change
+ * acknowledgement reconciles it: the server's state for the position is
+ * applied once the break is acknowledged, which is a no-op if the prediction
+ * was right and rolls it back otherwise. Right-click harvests are predicted
+ * the same way, and the server always sends the used block back after an
+ * interaction.
+ * </p>
+ * <p>
+ * Deferred replants are not predicted, as the server only replants them after
+ * acknowledging the break, and area harvests are left to the server's
+ * multi-block updates.
+ * </p>
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ * @see AutoReplanterConfig#predictReplantsOnClient
+ */
+@Environment(EnvType.CLIENT)
+public class AutoReplanterClient implements ClientModInitializer {
+
+	/** The configuration sent by the server, or {@code null} if none was sent. */
+	@Nullable
+	private volatile AutoReplanterConfig serverConfig;
+
+	/**
+	 * The server's replant rules, compiled against the client's registries, or
+	 * {@code null} if not connected to a server running the mod.
+	 */
+	@Nullable
+	private volatile ConfigSnapshot snapshot;
+
+	/**
+	 * Initializes client-side replant prediction, unless disabled in the local
+	 * configuration. The server only sends its rules to clients that listen for
+	 * them.
+	 */
+	@Override
+	public void onInitializeClient() {
+		if (!ConfigManager.loadConfig().predictReplantsOnClient) {
+			return;
+		}
+
+		ClientPlayNetworking.registerGlobalReceiver(ReplantRulesPayload.ID, (payload, context) -> {
+			serverConfig = payload.config();
+			compile(context.player().getWorld().getRegistryManager());
+		});
+
+		// Tool tags and the enchantment may change when the server reloads data packs
+		CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+			if (client) {
+				compile(registries);
+			}
+		});
+
+		ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+			serverConfig = null;
+			snapshot = null;
+		});
+
+		ClientPlayerBlockBreakEvents.AFTER.register((world, player, position, state) -> {
+			ConfigSnapshot current = snapshot;
+
+			if (current == null || current.config.deferReplants) {
+				return;
+			}
+
+			ReplantPlan plan = predictPlan(current, player, state);
+
+			if (plan != null) {
+				world.setBlockState(position, plan.replantState, Block.NOTIFY_ALL);
+			}
+		});
+
+		UseBlockCallback.EVENT.register((player, world, hand, hitResult) -> {
+			ConfigSnapshot current = snapshot;
+
+			if (!world.isClient || current == null || hand != Hand.MAIN_HAND
+					|| !current.config.enableRightClickHarvest) {
+				return ActionResult.PASS;
+			}
+
+			BlockPos position = hitResult.getBlockPos();
+			BlockState state = world.getBlockState(position);
+			ReplantPlan plan = predictPlan(current, player, state);
+
+			// Mirrors the server, which only resets mature crops in place
+			if (plan == null || !plan.mature || !(state.getBlock() instanceof CropBlock) || player.isSpectator()
+					|| !player.canModifyBlocks() || !world.canPlayerModifyAt(player, position)) {
+				return ActionResult.PASS;
+			}
+
+			world.setBlockState(position, plan.replantState, Block.NOTIFY_LISTENERS);
+
+			return ActionResult.SUCCESS;
+		});
+	}
+
+	/**
+	 * Compiles the server's configuration against the client's registries.
+	 *
+	 * @param registries The client's dynamic registries.
+	 */
+	private void compile(DynamicRegistryManager registries) {
+		AutoReplanterConfig config = serverConfig;
+
+		if (config != null) {
+			snapshot = ConfigSnapshot.compile(config, AutoReplanter.findAutoReplanterEnchantment(registries));
+		}
+	}
+
+	/**
+	 * Decides whether the server would replant a block state harvested by the
+	 * player, using the same checks as the server.
+	 *
+	 * @param snapshot The server's compiled rules.
+	 * @param player   The player harvesting the block.
+	 * @param state    The block state being harvested.
+	 * @return The replant plan the server would use, or {@code null} if the block
+	 *         would not be replanted.
+	 */
+	@Nullable
+	private static ReplantPlan predictPlan(ConfigSnapshot snapshot, PlayerEntity player, BlockState state) {
+		AutoReplanterConfig config = snapshot.config;
+
+		if (!config.enableAutoReplanting || !config.getSneakMode().permits(player.isSneaking())) {
+			return null;
+		}
+
+		ReplantPlan plan = snapshot.replantPlans.get(state);
+
+		if (plan == null || (config.requireTool && !snapshot.isValidTool(player.getMainHandStack()))) {
+			return null;
+		}
+
+		return plan;
+	}
+}
@@ -0,0 +1,22 @@
+package net.jackclarke95.autoreplanter.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import net.minecraft.loot.context.LootContext;
+import net.minecraft.util.math.random.Random;
+
+/**
+ * Allows a custom random source to be supplied when building a loot context,
+ * so {@link net.jackclarke95.autoreplanter.ReplantDropCache} can tell whether
+ * evaluating a loot table used any randomness.
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+@Mixin(LootContext.Builder.class)
+public interface LootContextBuilderAccessor {
+
+	@Accessor("random")
+	void autoreplanter$setRandom(Random random);
+}
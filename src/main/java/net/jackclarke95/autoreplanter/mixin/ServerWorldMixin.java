@@ -0,0 +1,35 @@
+package net.jackclarke95.autoreplanter.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+import net.jackclarke95.autoreplanter.MatureCropIndex;
+import net.jackclarke95.autoreplanter.WorldReplantState;
+import net.minecraft.server.world.ServerWorld;
+
+/**
+ * Gives each server world its own {@link MatureCropIndex} and
+ * {@link WorldReplantState}.
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+@Mixin(ServerWorld.class)
+public abstract class ServerWorldMixin implements MatureCropIndex.Holder, WorldReplantState.Holder {
+
+	@Unique
+	private final MatureCropIndex autoreplanter$matureCropIndex = new MatureCropIndex((ServerWorld) (Object) this);
+
+	@Unique
+	private final WorldReplantState autoreplanter$replantState = new WorldReplantState((ServerWorld) (Object) this);
+
+	@Override
+	public MatureCropIndex autoreplanter$getMatureCropIndex() {
+		return autoreplanter$matureCropIndex;
+	}
+
+	@Override
+	public WorldReplantState autoreplanter$getReplantState() {
+		return autoreplanter$replantState;
+	}
+}
@@ -0,0 +1,41 @@
+package net.jackclarke95.autoreplanter.mixin;
+
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import net.jackclarke95.autoreplanter.MatureCropIndex;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Keeps the {@link MatureCropIndex} up to date as crops are placed, grow and
+ * are removed. Every block change in a loaded chunk goes through
+ * {@link WorldChunk#setBlockState}, whatever caused it.
+ *
+ * @author jackclarke95
+ * @since 1.4.0
+ */
+@Mixin(WorldChunk.class)
+public abstract class WorldChunkMixin {
+
+	@Shadow
+	@Final
+	World world;
+
+	@Inject(method = "setBlockState", at = @At("RETURN"))
+	private void autoreplanter$updateMatureCropIndex(BlockPos pos, BlockState state, boolean moved,
+			CallbackInfoReturnable<BlockState> cir) {
+		BlockState previous = cir.getReturnValue();
+
+		// Unchanged blocks return null
+		if (previous != null && world instanceof MatureCropIndex.Holder holder) {
+			holder.autoreplanter$getMatureCropIndex().onBlockChanged(pos, previous, state);
+		}
+	}
+}